@@ -0,0 +1,92 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.OptimisticLockingFailureException;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.MemberService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 같은 회원을 동시에 수정: 비관적 락(PESSIMISTIC_WRITE) vs 낙관적 락(@Version + 재시도)
+ * - 8 스레드가 hotMembers 명 중 한 명을 골라 나이를 1 증가 (hotMembers 가 적을수록 충돌이 잦다)
+ * - Throughput(ops/ms)과 SampleTime(p0.99, p0.999 지연 시간)을 같이 본다.
+ * - 낙관적 락이 재시도를 다 써도 실패하면 실패도 1회로 측정 (optimistic.failures 메트릭 참고)
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(8)
+public class MemberLockBenchmark {
+
+    @Param({"1", "16"})
+    int hotMembers;
+
+    ConfigurableApplicationContext context;
+    MemberService memberService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:lock;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "decorator.datasource.p6spy.enable-logging=false")
+                .run();
+        memberService = context.getBean(MemberService.class);
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < hotMembers; i++) {
+            members.add(new Member("hot" + i, 0));
+        }
+        context.getBean(MemberRepository.class).saveAll(members);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int pessimisticWrite() {
+        return memberService.increaseAgeWithPessimisticLock(hotUsername());
+    }
+
+    @Benchmark
+    public int optimisticRetry() {
+        try {
+            return memberService.increaseAge(hotUsername());
+        } catch (OptimisticLockingFailureException e) {
+            return -1;
+        }
+    }
+
+    private String hotUsername() {
+        return "hot" + ThreadLocalRandom.current().nextInt(hotMembers);
+    }
+}
@@ -0,0 +1,152 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberProjection;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.NestedClosedProjection;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.repository.UsernameOnly;
+import study.datajpa.repository.UsernameOnlyDto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 이미 있는 조회 전략(엔티티 그래프, DTO, 프로젝션, 네이티브, 읽기 전용 힌트) 비교
+ * - 내장 H2(메모리)에 memberCount 만큼 데이터를 넣고 애플리케이션과 같은 설정으로 측정
+ * - 단, 캐시(2차 캐시, 쿼리 캐시, @CachedCount)는 끈다: 조회 전략이 아니라 캐시 hit 을 재게 되므로
+ * - 실제 서비스처럼 트랜잭션 안에서 실행 (커밋 시 더티 체킹 비용까지 포함)
+ * - 처리량(ops/s)과 gc.alloc.rate.norm(호출당 할당 byte)을 같이 본다.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberQueryBenchmark {
+
+    private static final String USERNAME = "member1";
+    private static final PageRequest PAGE = PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "username"));
+
+    @Param({"1000"})
+    int memberCount;
+
+    ConfigurableApplicationContext context;
+    MemberRepository memberRepository;
+    TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false",
+                        "spring.jpa.properties.hibernate.cache.use_query_cache=false",
+                        "repository.count-cache.enabled=false",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "decorator.datasource.p6spy.enable-logging=false")
+                .run();
+        memberRepository = context.getBean(MemberRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Team> teams = new ArrayList<>();
+            for (int i = 0; i < 10; i++) {
+                teams.add(new Team("team" + i));
+            }
+            context.getBean(TeamRepository.class).saveAll(teams);
+
+            List<Member> members = new ArrayList<>(memberCount);
+            for (int i = 0; i < memberCount; i++) {
+                members.add(new Member("member" + i, i % 100, teams.get(i % teams.size())));
+            }
+            memberRepository.saveAllBatched(members, 500);
+        });
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> findAllEntityGraph() {
+        return transactionTemplate.execute(status -> memberRepository.findAll());
+    }
+
+    @Benchmark
+    public List<MemberDto> findMemberDto() {
+        return transactionTemplate.execute(status -> memberRepository.findMemberDto());
+    }
+
+    @Benchmark
+    public List<UsernameOnly> interfaceProjection() {
+        return transactionTemplate.execute(status -> memberRepository.findProjectionsByUsername(USERNAME));
+    }
+
+    @Benchmark
+    public List<NestedClosedProjection> nestedClosedProjection() {
+        return transactionTemplate.execute(status -> memberRepository.findProjections1ByUsername(USERNAME));
+    }
+
+    @Benchmark
+    public List<UsernameOnlyDto> classProjection() {
+        return transactionTemplate.execute(status -> memberRepository.findProjections2ByUsername(USERNAME));
+    }
+
+    @Benchmark
+    public List<MemberProjection> nativeProjection() {
+        return transactionTemplate.execute(status ->
+                memberRepository.findByNativeProjection(PageRequest.of(0, 100)).getContent());
+    }
+
+    /** 읽기 전용 힌트와 비교 기준 (스냅샷 + 커밋 시 더티 체킹) */
+    @Benchmark
+    public List<Member> entityByUsername() {
+        return transactionTemplate.execute(status -> memberRepository.findListByUsername(USERNAME));
+    }
+
+    @Benchmark
+    public Member readOnlyHintByUsername() {
+        return transactionTemplate.execute(status -> memberRepository.findReadOnlyByUsername(USERNAME));
+    }
+
+    /** MemberController.list: 엔티티 페이지 조회 후 Page.map(MemberDto::new) (이전 방식) */
+    @Benchmark
+    public Page<MemberDto> pageEntityThenMap() {
+        return transactionTemplate.execute(status -> memberRepository.findAll(PAGE).map(MemberDto::new));
+    }
+
+    /** MemberController.list: JdbcTemplate + RowMapper 로 DTO 바로 조회 */
+    @Benchmark
+    public Page<MemberDto> pageDtoRowMapper() {
+        return transactionTemplate.execute(status -> memberRepository.findMemberDtoPage(PAGE));
+    }
+}
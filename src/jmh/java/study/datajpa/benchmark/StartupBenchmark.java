@@ -0,0 +1,85 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 시작부터 첫 요청 응답까지 걸리는 시간 (time-to-first-request)
+ * - default: 리포지토리 즉시 생성, ddl-auto create, 쿼리 warm-up
+ * - fast-startup: 리포지토리 지연 생성, 스키마 검증만 (application-fast-startup.yml)
+ * - fork 마다 한 번 시작 (JVM 이 차가운 상태), 첫 요청은 리포지토리를 사용하는 /members/dashboard
+ * - 스키마가 있어야 해서 파일 H2 사용, 없으면 warm-up fork 에서 생성
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(value = 5, warmups = 1)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class StartupBenchmark {
+
+    private static final String DATABASE = "./build/startup-benchmark/datajpa";
+    private static final HttpClient HTTP = HttpClient.newHttpClient();
+
+    @Param({"default", "fast-startup"})
+    String profile;
+
+    ConfigurableApplicationContext context;
+
+    @Setup(Level.Trial)
+    public void createSchema() {
+        if (!Files.exists(Path.of(DATABASE + ".mv.db"))) {
+            start("default", WebApplicationType.NONE).close();
+        }
+    }
+
+    @Benchmark
+    public int timeToFirstRequest() throws Exception {
+        context = start(profile, WebApplicationType.SERVLET);
+        int port = context.getEnvironment().getRequiredProperty("local.server.port", Integer.class);
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/members/dashboard")).build();
+        return HTTP.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        if (context != null) {
+            context.close();
+        }
+    }
+
+    private static ConfigurableApplicationContext start(String profile, WebApplicationType webApplicationType) {
+        return new SpringApplicationBuilder(DataJpaApplication.class)
+                .web(webApplicationType)
+                .profiles(profile)
+                .properties(
+                        "spring.datasource.url=jdbc:h2:file:" + DATABASE,
+                        "server.port=0",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "decorator.datasource.p6spy.enable-logging=false")
+                .run();
+    }
+}
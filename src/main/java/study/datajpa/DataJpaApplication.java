@@ -1,15 +1,20 @@
 package study.datajpa;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import study.datajpa.config.CachedAuditorAware;
+import study.datajpa.config.TransactionDateTimeProvider;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 import java.util.UUID;
 
-@EnableJpaAuditing //Auditing 설정
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider") //Auditing 설정
 @SpringBootApplication
 public class DataJpaApplication {
 
@@ -20,10 +25,22 @@ public class DataJpaApplication {
 	/**
 	 * 등록자, 수정자를 처리해주는 AuditorAware 스프링 빈 등록
 	 * 실무에서는 세션 정보나, 스프링 시큐리티 로그인 정보에서 ID를 받음
+	 * - 저장/수정할 때마다 조회, auditing.cached=true 면 요청(요청 밖이면 트랜잭션)마다 한 번만 조회
 	 */
 	@Bean
-	public AuditorAware<String> auditorProvider() {
-		return () -> Optional.of(UUID.randomUUID().toString()); //공부 용이라 그냥 랜덤 값 돌림
+	public AuditorAware<String> auditorProvider(@Value("${auditing.cached:false}") boolean cached) {
+		AuditorAware<String> auditorAware = () -> Optional.of(UUID.randomUUID().toString()); //공부 용이라 그냥 랜덤 값 돌림
+		return cached ? new CachedAuditorAware<>(auditorAware) : auditorAware;
+	}
+
+	/**
+	 * 등록일, 수정일
+	 * - 저장/수정할 때마다 현재 시각, auditing.cached=true 면 트랜잭션 안에서는 같은 시각
+	 *   (한 트랜잭션에서 등록 후 수정하면 등록일 = 수정일, 대량 저장처럼 시각 차이가 의미 없을 때 사용)
+	 */
+	@Bean
+	public DateTimeProvider auditingDateTimeProvider(@Value("${auditing.cached:false}") boolean cached) {
+		return cached ? new TransactionDateTimeProvider() : () -> Optional.of(LocalDateTime.now());
 	}
 
 }
@@ -0,0 +1,43 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.AsyncAnnotationBeanPostProcessor;
+import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 비동기 리포지토리 조회 (@Async("queryExecutor"))
+ * - 서로 관계없는 조회를 동시에 실행해서 전체 응답 시간 = 가장 느린 조회 시간
+ * - 스레드 수는 커넥션 풀보다 작게, 큐도 제한 (가득 차면 TaskRejectedException)
+ */
+@Configuration
+@EnableAsync
+public class AsyncQueryConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor queryExecutor(@Value("${query.executor.pool-size:8}") int poolSize,
+                                                @Value("${query.executor.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("query-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        return executor;
+    }
+
+    /**
+     * Executor 빈을 직접 등록하면 스프링 부트 기본 실행기(MVC 비동기 요청, StreamingResponseBody 등)가 빠지므로 같이 등록
+     */
+    @Lazy
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME,
+            AsyncAnnotationBeanPostProcessor.DEFAULT_TASK_EXECUTOR_BEAN_NAME})
+    public ThreadPoolTaskExecutor applicationTaskExecutor(TaskExecutorBuilder builder) {
+        return builder.build();
+    }
+}
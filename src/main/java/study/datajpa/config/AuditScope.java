@@ -0,0 +1,53 @@
+package study.datajpa.config;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.function.Supplier;
+
+/**
+ * 감사(Auditing) 값을 요청/트랜잭션 범위에서 한 번만 계산하고 재사용
+ * - 요청: RequestAttributes 에 보관 (요청 끝나면 같이 사라짐)
+ * - 트랜잭션: TransactionSynchronizationManager 리소스로 보관, 트랜잭션이 끝나면 제거
+ * - 둘 다 없으면 매번 계산
+ */
+final class AuditScope {
+
+    private AuditScope() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T request(String key, Supplier<T> supplier) {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) {
+            return transaction(key, supplier);
+        }
+        T value = (T) request.getAttribute(key, RequestAttributes.SCOPE_REQUEST);
+        if (value == null) {
+            value = supplier.get();
+            request.setAttribute(key, value, RequestAttributes.SCOPE_REQUEST);
+        }
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <T> T transaction(String key, Supplier<T> supplier) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return supplier.get();
+        }
+        T value = (T) TransactionSynchronizationManager.getResource(key);
+        if (value == null) {
+            value = supplier.get();
+            TransactionSynchronizationManager.bindResource(key, value);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(key);
+                }
+            });
+        }
+        return value;
+    }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.config;
+
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.data.spel.spi.EvaluationContextExtension;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 벌크 수정 쿼리(JPQL update)에 수정일/수정자 넣기
+ * - 벌크 연산은 엔티티를 거치지 않으므로 AuditingEntityListener 가 동작하지 않는다.
+ * - 엔티티 저장과 같은 AuditorAware, DateTimeProvider 값을 사용 (같은 트랜잭션이면 같은 값)
+ * - 순수 JPA: now(), auditor() 를 파라미터로 바인딩
+ * - 스프링 데이터 JPA @Query: SpEL 로 바인딩 (예: m.lastModifiedDate = :#{auditingNow}, m.lastModifiedBy = :#{auditingUser})
+ */
+@Component
+public class BulkAuditing implements EvaluationContextExtension {
+
+    private final AuditorAware<String> auditorAware;
+    private final DateTimeProvider dateTimeProvider;
+
+    public BulkAuditing(AuditorAware<String> auditorAware, DateTimeProvider dateTimeProvider) {
+        this.auditorAware = auditorAware;
+        this.dateTimeProvider = dateTimeProvider;
+    }
+
+    public LocalDateTime now() {
+        TemporalAccessor now = dateTimeProvider.getNow().orElseThrow();
+        return LocalDateTime.from(now);
+    }
+
+    /** 없으면 null */
+    public String auditor() {
+        return auditorAware.getCurrentAuditor().orElse(null);
+    }
+
+    @Override
+    public String getExtensionId() {
+        return "auditing";
+    }
+
+    @Override
+    public Map<String, Object> getProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("auditingNow", now());
+        properties.put("auditingUser", auditor());
+        return properties;
+    }
+}
@@ -0,0 +1,47 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.ehcache.jsr107.EhcacheCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URISyntaxException;
+
+/**
+ * Hibernate 2차 캐시 설정
+ * - 캐시 구현체(JCache)는 application.yml 의 region.factory_class 로, 크기/TTL 은 ehcache.xml 로 설정
+ * - Hibernate 가 CacheManager 를 따로 만들지 않고 스프링 빈을 쓰도록 넘겨준다. (메트릭 연결, 종료 시 close)
+ */
+@Configuration
+public class CacheConfig {
+
+    @Bean(destroyMethod = "close")
+    public CacheManager jCacheManager() throws URISyntaxException {
+        CachingProvider provider = Caching.getCachingProvider(EhcacheCachingProvider.class.getName());
+        return provider.getCacheManager(getClass().getResource("/ehcache.xml").toURI(), getClass().getClassLoader());
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer(CacheManager jCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, jCacheManager);
+    }
+
+    /**
+     * region 별 hit/miss/put/eviction 카운터
+     * - /actuator/metrics/cache.gets, cache.evictions ... (tag: cache=region 이름)
+     */
+    @Bean
+    public MeterBinder secondLevelCacheMetrics(CacheManager jCacheManager) {
+        return registry -> {
+            for (String cacheName : jCacheManager.getCacheNames()) {
+                JCacheMetrics.monitor(registry, jCacheManager.getCache(cacheName));
+            }
+        };
+    }
+}
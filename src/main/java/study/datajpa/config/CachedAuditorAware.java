@@ -0,0 +1,26 @@
+package study.datajpa.config;
+
+import org.springframework.data.domain.AuditorAware;
+
+import java.util.Optional;
+
+/**
+ * 등록자/수정자를 요청(요청 밖이면 트랜잭션)마다 한 번만 조회
+ * - AuditingEntityListener 는 엔티티를 저장/수정할 때마다 AuditorAware 를 호출한다. (대량 저장 시 행 수만큼)
+ * - 로그인 정보처럼 요청 안에서 바뀌지 않는 값이므로 캐시해도 결과가 같다.
+ */
+public class CachedAuditorAware<T> implements AuditorAware<T> {
+
+    private static final String KEY = CachedAuditorAware.class.getName() + ".auditor";
+
+    private final AuditorAware<T> delegate;
+
+    public CachedAuditorAware(AuditorAware<T> delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public Optional<T> getCurrentAuditor() {
+        return AuditScope.request(KEY, delegate::getCurrentAuditor);
+    }
+}
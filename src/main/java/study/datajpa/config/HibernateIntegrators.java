@@ -0,0 +1,26 @@
+package study.datajpa.config;
+
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.jpa.boot.internal.EntityManagerFactoryBuilderImpl;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Hibernate Integrator 등록 (여러 HibernatePropertiesCustomizer 가 등록해도 덮어쓰지 않도록) */
+final class HibernateIntegrators {
+
+    private HibernateIntegrators() {
+    }
+
+    static void add(Map<String, Object> properties, Integrator integrator) {
+        List<Integrator> integrators = new ArrayList<>();
+        Object provider = properties.get(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER);
+        if (provider instanceof IntegratorProvider) {
+            integrators.addAll(((IntegratorProvider) provider).getIntegrators());
+        }
+        integrators.add(integrator);
+        properties.put(EntityManagerFactoryBuilderImpl.INTEGRATOR_PROVIDER, (IntegratorProvider) () -> integrators);
+    }
+}
@@ -0,0 +1,22 @@
+package study.datajpa.config;
+
+import org.hibernate.stat.internal.StatisticsInitiator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.monitoring.SlowQueryLog;
+import study.datajpa.monitoring.SlowQueryStatistics;
+
+/**
+ * Hibernate 통계 구현체 교체 (기본 통계 + 느린 쿼리 기록)
+ * - 통계 수집 자체는 application.yml 의 generate_statistics 로 켠다.
+ * - 조회: JMX hibernate 엔드포인트 (HibernateStatisticsEndpoint)
+ */
+@Configuration
+public class HibernateStatisticsConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer slowQueryStatisticsCustomizer(SlowQueryLog slowQueryLog) {
+        return properties -> properties.put(StatisticsInitiator.STATS_BUILDER, SlowQueryStatistics.factory(slowQueryLog));
+    }
+}
@@ -0,0 +1,56 @@
+package study.datajpa.config;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryBuilderCustomizer;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.repository.config.BootstrapMode;
+import study.datajpa.repository.support.DataJpaRepositoryFactoryBean;
+
+/**
+ * 스프링 부트 기본 설정 대신 직접 등록: 리포지토리를 DataJpaRepositoryFactoryBean 으로 생성
+ * - 부트 기본 설정(JpaRepositoriesAutoConfiguration)이 빠지므로 spring.data.jpa.repositories.bootstrap-mode 도 여기서 처리
+ *   default: 시작 시 생성, lazy: 처음 사용할 때 생성, deferred: 시작 후 백그라운드에서 생성
+ * - lazy/deferred 는 EntityManagerFactory 도 applicationTaskExecutor 에서 백그라운드 생성 (부트와 같음)
+ */
+@Configuration
+public class JpaRepositoryConfig {
+
+    private static final String BOOTSTRAP_MODE = "spring.data.jpa.repositories.bootstrap-mode";
+
+    @Configuration
+    @ConditionalOnProperty(name = BOOTSTRAP_MODE, havingValue = "default", matchIfMissing = true)
+    @EnableJpaRepositories(basePackages = "study.datajpa.repository",
+            repositoryFactoryBeanClass = DataJpaRepositoryFactoryBean.class)
+    static class DefaultBootstrap {
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = BOOTSTRAP_MODE, havingValue = "lazy")
+    @EnableJpaRepositories(basePackages = "study.datajpa.repository",
+            repositoryFactoryBeanClass = DataJpaRepositoryFactoryBean.class,
+            bootstrapMode = BootstrapMode.LAZY)
+    static class LazyBootstrap extends BackgroundBootstrap {
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = BOOTSTRAP_MODE, havingValue = "deferred")
+    @EnableJpaRepositories(basePackages = "study.datajpa.repository",
+            repositoryFactoryBeanClass = DataJpaRepositoryFactoryBean.class,
+            bootstrapMode = BootstrapMode.DEFERRED)
+    static class DeferredBootstrap extends BackgroundBootstrap {
+    }
+
+    abstract static class BackgroundBootstrap {
+
+        @Bean
+        public EntityManagerFactoryBuilderCustomizer entityManagerFactoryBootstrapExecutorCustomizer(
+                @Qualifier(TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME) AsyncTaskExecutor executor) {
+            return builder -> builder.setBootstrapExecutor(executor);
+        }
+    }
+}
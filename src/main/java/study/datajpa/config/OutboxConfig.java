@@ -0,0 +1,36 @@
+package study.datajpa.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.outbox.FileOutboxSink;
+import study.datajpa.outbox.OutboxSink;
+import study.datajpa.outbox.QueueOutboxSink;
+
+import java.nio.file.Path;
+
+/**
+ * 아웃박스 기록을 내보낼 곳 (OutboxRelay, outbox.enabled=true 일 때만)
+ * - outbox.sink.type=file: 파일(NDJSON, outbox.sink.file)
+ * - outbox.sink.type=queue: 메모리 큐 (같은 프로세스에서 소비하는 경우, 테스트, outbox.sink.queue-capacity)
+ * - type 으로 하나만 고른다. 없으면 내보내지 않는다. (relay 꺼짐, 기록은 outbox_event 에 남는다)
+ * - 메시지 브로커로 보내려면 OutboxSink 빈을 등록
+ */
+@Configuration
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class OutboxConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "outbox.sink.type", havingValue = "file")
+    public OutboxSink fileOutboxSink(@Value("${outbox.sink.file}") String file, ObjectMapper objectMapper) {
+        return new FileOutboxSink(Path.of(file), objectMapper);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "outbox.sink.type", havingValue = "queue")
+    public OutboxSink queueOutboxSink(@Value("${outbox.sink.queue-capacity:10000}") int queueCapacity) {
+        return new QueueOutboxSink(queueCapacity);
+    }
+}
@@ -0,0 +1,213 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.engine.query.spi.HQLQueryPlan;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Page;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * 애플리케이션 시작 시 쿼리 미리 컴파일 (JPQL 파싱 + SQL 생성 -> Hibernate QueryPlanCache)
+ * - 배포 직후 첫 호출마다 생기는 지연을 시작 단계로 옮긴다.
+ * - 대상: 리포지토리 @Query (JPQL, count 쿼리) + 지난 실행에서 실행된 JPQL (journal 파일)
+ *   순수 JPA 리포지토리(MemberJpaRepository 등)의 문자열 쿼리, 메서드 이름 쿼리는 실행해봐야 알 수 있어서 journal 로 수집
+ * - prime-connections > 0 이면 커넥션마다 SQL 을 prepare 해서 드라이버/DB 의 statement 캐시도 채운다.
+ * - ApplicationRunner 라서 끝나야 ApplicationReadyEvent -> readiness ACCEPTING_TRAFFIC (/actuator/health/readiness)
+ * - 실패한 쿼리(예: 지난 버전의 journal)는 경고만 남기고 계속 (query.warmup.queries{result=failure})
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "query-warmup.enabled", havingValue = "true", matchIfMissing = true)
+public class QueryWarmUp implements ApplicationRunner {
+
+    private final ListableBeanFactory beanFactory;
+    private final SessionFactoryImplementor sessionFactory;
+    private final DataSource dataSource;
+    private final int parallelism;
+    private final int primeConnections;
+    private final Path journal;
+    private final Timer warmUpTimer;
+    private final Counter compiled;
+    private final Counter failed;
+    private final Set<String> warmedQueries = new ConcurrentSkipListSet<>();
+
+    public QueryWarmUp(ListableBeanFactory beanFactory,
+                       EntityManagerFactory entityManagerFactory,
+                       DataSource dataSource,
+                       MeterRegistry meterRegistry,
+                       @Value("${query-warmup.parallelism:#{T(java.lang.Runtime).getRuntime().availableProcessors()}}") int parallelism,
+                       @Value("${query-warmup.prime-connections:0}") int primeConnections,
+                       @Value("${query-warmup.journal:}") String journal) {
+        this.beanFactory = beanFactory;
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.dataSource = dataSource;
+        this.parallelism = Math.max(parallelism, 1);
+        this.primeConnections = primeConnections;
+        this.journal = StringUtils.hasText(journal) ? Path.of(journal) : null;
+        this.warmUpTimer = meterRegistry.timer("query.warmup"); //시작 시 warm-up 소요 시간
+        this.compiled = meterRegistry.counter("query.warmup.queries", "result", "success");
+        this.failed = meterRegistry.counter("query.warmup.queries", "result", "failure");
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Timer.Sample sample = Timer.start();
+        Set<String> jpqls = new TreeSet<>();
+        Set<String> sqls = new TreeSet<>();
+        collectDeclaredQueries(jpqls, sqls);
+        jpqls.addAll(readJournal());
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<CompletableFuture<List<String>>> futures = jpqls.stream()
+                    .map(jpql -> CompletableFuture.supplyAsync(() -> compile(jpql), executor))
+                    .collect(Collectors.toList());
+            futures.forEach(future -> sqls.addAll(future.join()));
+            if (primeConnections > 0) {
+                prime(new ArrayList<>(sqls), executor);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        long nanos = sample.stop(warmUpTimer);
+        log.info("Query warm-up: {} JPQL ({} failed), {} SQL shapes, primed connections={} in {}ms",
+                jpqls.size(), jpqls.size() - warmedQueries.size(), sqls.size(), primeConnections, nanos / 1_000_000);
+    }
+
+    /** 다음 시작 때 warm-up 할 JPQL 저장 (이번에 warm-up 한 것 + 실행된 것, Hibernate 통계) */
+    @PreDestroy
+    public void writeJournal() {
+        if (journal == null) {
+            return;
+        }
+        Set<String> queries = new TreeSet<>(warmedQueries);
+        queries.addAll(Arrays.asList(sessionFactory.getStatistics().getQueries()));
+        try {
+            Files.write(journal, queries.stream()
+                    .map(query -> query.replaceAll("\\s+", " ")) //한 줄에 하나
+                    .collect(Collectors.toList()));
+        } catch (IOException e) {
+            log.warn("Failed to write query warm-up journal {}", journal, e);
+        }
+    }
+
+    /** 리포지토리 @Query (SpEL 이 들어간 쿼리는 스프링 데이터가 바꿔서 실행하므로 제외) */
+    private void collectDeclaredQueries(Set<String> jpqls, Set<String> sqls) {
+        Repositories repositories = new Repositories(beanFactory);
+        for (Class<?> domainType : repositories) {
+            repositories.getRepositoryInformationFor(domainType).ifPresent(information ->
+                    information.getQueryMethods().forEach(method -> {
+                        Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+                        if (query == null || !StringUtils.hasText(query.value()) || query.value().contains("#{")) {
+                            return;
+                        }
+                        Set<String> target = query.nativeQuery() ? sqls : jpqls;
+                        target.add(query.value());
+                        if (StringUtils.hasText(query.countQuery())) {
+                            target.add(query.countQuery());
+                        } else if (!query.nativeQuery() && Page.class.isAssignableFrom(method.getReturnType())) {
+                            target.add(QueryUtils.createCountQueryFor(query.value()));
+                        }
+                    }));
+        }
+    }
+
+    private Collection<String> readJournal() {
+        if (journal == null || !Files.isReadable(journal)) {
+            return Collections.emptyList();
+        }
+        try {
+            return Files.readAllLines(journal).stream()
+                    .filter(StringUtils::hasText)
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.warn("Failed to read query warm-up journal {}", journal, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /** JPQL -> SQL (QueryPlanCache 에 저장됨) */
+    private List<String> compile(String jpql) {
+        try {
+            HQLQueryPlan plan = sessionFactory.getQueryPlanCache().getHQLQueryPlan(jpql, false, Collections.emptyMap());
+            warmedQueries.add(jpql);
+            compiled.increment();
+            return Arrays.asList(plan.getSqlStrings());
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.warn("Failed to warm up query [{}]: {}", jpql, e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    /** 커넥션을 동시에 primeConnections 개 잡고 각각 모든 SQL 을 prepare (커넥션 풀의 서로 다른 커넥션) */
+    private void prime(List<String> sqls, ExecutorService executor) {
+        List<Connection> connections = new ArrayList<>(primeConnections);
+        try {
+            for (int i = 0; i < primeConnections; i++) {
+                connections.add(dataSource.getConnection());
+            }
+            CompletableFuture.allOf(connections.stream()
+                    .map(connection -> CompletableFuture.runAsync(() -> prepareAll(connection, sqls), executor))
+                    .toArray(CompletableFuture[]::new)).join();
+        } catch (SQLException e) {
+            log.warn("Failed to prime statement cache with {} connections", primeConnections, e);
+        } finally {
+            connections.forEach(QueryWarmUp::closeQuietly);
+        }
+    }
+
+    private static void prepareAll(Connection connection, List<String> sqls) {
+        for (String sql : sqls) {
+            try (PreparedStatement ignored = connection.prepareStatement(sql)) {
+                //prepare 만 (실행 X)
+            } catch (SQLException e) {
+                log.debug("Failed to prepare [{}]: {}", sql, e.getMessage());
+            }
+        }
+    }
+
+    private static void closeQuietly(Connection connection) {
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("Failed to close connection", e);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package study.datajpa.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * replica 를 읽기에 써도 되는지 주기적으로 확인
+ * - 연결이 안되거나 복제 지연이 maxLag 보다 크면 사용 불가 -> 읽기도 primary 로
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 1;
+
+    private final DataSource replicaDataSource;
+    private final ReplicaProperties properties;
+    private volatile boolean replicaUsable = true;
+
+    public ReplicaLagMonitor(DataSource replicaDataSource, ReplicaProperties properties) {
+        this.replicaDataSource = replicaDataSource;
+        this.properties = properties;
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.replica.check-interval:5000}")
+    public void check() {
+        boolean usable = probe();
+        if (usable != replicaUsable) {
+            log.warn("Replica {} for reads", usable ? "enabled" : "disabled");
+        }
+        replicaUsable = usable;
+    }
+
+    private boolean probe() {
+        try (Connection connection = replicaDataSource.getConnection()) {
+            if (!StringUtils.hasText(properties.getLagQuery())) {
+                return connection.isValid(VALIDATION_TIMEOUT_SECONDS);
+            }
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(properties.getLagQuery())) {
+                return resultSet.next() && resultSet.getDouble(1) <= properties.getMaxLag().toSeconds();
+            }
+        } catch (SQLException e) {
+            log.warn("Replica check failed: {}", e.getMessage());
+            return false;
+        }
+    }
+}
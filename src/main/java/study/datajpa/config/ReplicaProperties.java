@@ -0,0 +1,27 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 읽기 전용 복제본(replica) 설정 (datasource.replica.*)
+ * - url 이 있을 때만 읽기/쓰기 분리 라우팅 사용
+ */
+@Getter @Setter
+@ConfigurationProperties("datasource.replica")
+public class ReplicaProperties {
+
+    private String url;
+    private String username;
+    private String password;
+    private String driverClassName;
+
+    /** 복제 지연(초)을 조회하는 쿼리. 없으면 연결 가능 여부만 확인 */
+    private String lagQuery;
+
+    /** 이보다 지연되면 읽기도 primary 로 보낸다 */
+    private Duration maxLag = Duration.ofSeconds(5);
+}
@@ -0,0 +1,56 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.hbm2ddl.SchemaValidator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 시작 시 스키마 검증만 (생성/변경 X) + 소요 시간 기록 (jpa.schema.validation)
+ * - schema.validate=true 일 때, ddl-auto 는 none 으로 두고 사용 (application-fast-startup.yml)
+ * - 엔티티와 테이블이 다르면 SchemaManagementException -> 애플리케이션 시작 실패
+ */
+@Configuration
+@ConditionalOnProperty(name = "schema.validate", havingValue = "true")
+public class SchemaValidationConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer timedSchemaValidationCustomizer(MeterRegistry meterRegistry) {
+        Timer timer = meterRegistry.timer("jpa.schema.validation");
+        return properties -> HibernateIntegrators.add(properties, new TimedSchemaValidator(timer));
+    }
+
+    @Slf4j
+    static class TimedSchemaValidator implements Integrator {
+
+        private final Timer timer;
+
+        TimedSchemaValidator(Timer timer) {
+            this.timer = timer;
+        }
+
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                              SessionFactoryServiceRegistry serviceRegistry) {
+            long start = System.nanoTime();
+            new SchemaValidator().validate(metadata, serviceRegistry);
+            long nanos = System.nanoTime() - start;
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            log.info("Schema validated in {}ms", nanos / 1_000_000);
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package study.datajpa.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import study.datajpa.repository.support.ShardContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ShardContext 에 지정된 샤드로 보낸다. (지정하지 않으면 기본 샤드)
+ * - 트랜잭션 시작 후에 커넥션을 얻도록 LazyConnectionDataSourceProxy 로 감싸서 사용
+ */
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    public ShardRoutingDataSource(Shards shards) {
+        Map<Object, Object> targets = new HashMap<>();
+        for (int shard = 0; shard < shards.count(); shard++) {
+            targets.put(shard, shards.getDataSource(shard));
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(shards.getDataSource(Shards.DEFAULT_SHARD));
+        setLenientFallback(false); //없는 샤드 번호는 예외
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+}
@@ -0,0 +1,107 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.boot.Metadata;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import study.datajpa.entity.support.AssignableSequenceGenerator;
+import study.datajpa.repository.support.ShardContext;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 회원/팀을 여러 DataSource 에 hash 파티셔닝 (datasource.sharding.shards 가 있을 때만)
+ * - 샤드 선택은 MemberShardRouter (리포지토리 호출 단위), 커넥션은 ShardRoutingDataSource
+ * - 스키마는 모든 샤드에 같게 만든다. (ddl-auto 설정을 샤드마다 적용)
+ *   회원은 팀과 같은 샤드에 저장하므로 member.team_id 외래 키도 샤드마다 유지
+ * - 쿼리 캐시는 샤드를 구분하지 못해서 (같은 쿼리 + 파라미터면 다른 샤드의 결과) 끈다. 엔티티 2차 캐시는 id 가 샤드마다 달라서 사용
+ * - 읽기/쓰기 분리 (ReplicationDataSourceConfig) 와 같이 사용 X
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+@ConditionalOnProperty(name = "datasource.sharding.shards[0].url")
+public class ShardingDataSourceConfig {
+
+    @Bean(destroyMethod = "close")
+    public Shards shards(ShardingProperties properties) {
+        List<HikariDataSource> dataSources = new ArrayList<>();
+        for (ShardingProperties.Shard shard : properties.getShards()) {
+            HikariDataSource dataSource = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getUrl())
+                    .username(shard.getUsername())
+                    .password(shard.getPassword())
+                    .driverClassName(shard.getDriverClassName())
+                    .build();
+            dataSource.setPoolName("shard-" + dataSources.size());
+            dataSource.setMaximumPoolSize(properties.getMaximumPoolSize());
+            dataSources.add(dataSource);
+        }
+        return new Shards(dataSources);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(Shards shards) {
+        ShardRoutingDataSource routingDataSource = new ShardRoutingDataSource(shards);
+        routingDataSource.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    /** Hibernate 는 기본 샤드에만 스키마를 만들므로 나머지 샤드는 여기서 + 샤딩용 Hibernate 설정 */
+    @Bean
+    public HibernatePropertiesCustomizer shardSchemaCustomizer(Shards shards) {
+        return properties -> {
+            HibernateIntegrators.add(properties, new ShardSchemaIntegrator(shards));
+            properties.put(AvailableSettings.USE_QUERY_CACHE, false);
+            properties.put(AssignableSequenceGenerator.SHARDS, shards); //회원 id 에 샤드 번호를 넣는다
+        };
+    }
+
+    @Slf4j
+    static class ShardSchemaIntegrator implements Integrator {
+
+        private final Shards shards;
+
+        ShardSchemaIntegrator(Shards shards) {
+            this.shards = shards;
+        }
+
+        @Override
+        public void integrate(Metadata metadata, SessionFactoryImplementor sessionFactory,
+                              SessionFactoryServiceRegistry serviceRegistry) {
+            Map<?, ?> settings = serviceRegistry.getService(ConfigurationService.class).getSettings();
+            for (int shard = 0; shard < shards.count(); shard++) {
+                if (shard == Shards.DEFAULT_SHARD) {
+                    continue;
+                }
+                try (ShardContext.Scope ignored = ShardContext.open(shard)) {
+                    //create-drop 의 종료 시 drop 은 기본 샤드만
+                    SchemaManagementToolCoordinator.process(metadata, serviceRegistry, settings, action -> {
+                    });
+                }
+                log.info("Schema management applied to shard {}", shard);
+            }
+        }
+
+        @Override
+        public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        }
+    }
+}
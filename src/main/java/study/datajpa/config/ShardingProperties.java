@@ -0,0 +1,31 @@
+package study.datajpa.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 회원 샤딩 설정 (datasource.sharding.*)
+ * - shards 가 있을 때만 샤딩 사용, 0번 샤드가 기본 샤드 (팀, 샤드를 지정하지 않은 쿼리)
+ * - 샤드 수를 바꾸면 기존 회원의 위치가 달라진다. (재배치 기능 X)
+ */
+@Getter @Setter
+@ConfigurationProperties("datasource.sharding")
+public class ShardingProperties {
+
+    private List<Shard> shards = new ArrayList<>();
+
+    /** 샤드마다 커넥션 풀 크기 */
+    private int maximumPoolSize = 10;
+
+    @Getter @Setter
+    public static class Shard {
+        private String url;
+        private String username;
+        private String password;
+        private String driverClassName;
+    }
+}
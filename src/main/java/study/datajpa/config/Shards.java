@@ -0,0 +1,43 @@
+package study.datajpa.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.util.Assert;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * 샤드 목록과 샤드 선택 (hash 파티셔닝: 회원/팀 id % 샤드 수)
+ * - 숫자가 아닌 키는 hashCode() % 샤드 수
+ */
+public class Shards implements AutoCloseable {
+
+    public static final int DEFAULT_SHARD = 0;
+
+    private final List<HikariDataSource> dataSources;
+
+    public Shards(List<HikariDataSource> dataSources) {
+        Assert.notEmpty(dataSources, "At least one shard is required");
+        this.dataSources = List.copyOf(dataSources);
+    }
+
+    public int count() {
+        return dataSources.size();
+    }
+
+    public int shardOf(Object key) {
+        Assert.notNull(key, "Shard key must not be null");
+        long hash = key instanceof Number ? ((Number) key).longValue() : key.hashCode();
+        return (int) Math.floorMod(hash, (long) count());
+    }
+
+    /** ShardRoutingDataSource 를 거치지 않는 샤드 DataSource */
+    public DataSource getDataSource(int shard) {
+        return dataSources.get(shard);
+    }
+
+    @Override
+    public void close() {
+        dataSources.forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,26 @@
+package study.datajpa.config;
+
+import org.springframework.data.auditing.DateTimeProvider;
+
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.Optional;
+
+/**
+ * 등록일/수정일을 트랜잭션 안에서 같은 시각으로 (DB 의 now() 처럼 트랜잭션 시작 후 첫 저장 시각)
+ * - 대량 저장(saveAllBatched)에서 행마다 시계를 읽지 않고, 한 배치의 행은 같은 시각을 갖는다.
+ * - 트랜잭션 밖이면 현재 시각
+ */
+public class TransactionDateTimeProvider implements DateTimeProvider {
+
+    private static final String KEY = TransactionDateTimeProvider.class.getName() + ".now";
+
+    @Override
+    public Optional<TemporalAccessor> getNow() {
+        return Optional.of(now());
+    }
+
+    public LocalDateTime now() {
+        return AuditScope.transaction(KEY, LocalDateTime::now);
+    }
+}
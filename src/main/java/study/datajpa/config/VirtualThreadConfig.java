@@ -0,0 +1,58 @@
+package study.datajpa.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 톰캣 요청 처리를 가상 스레드에서 실행 (app.web.virtual-threads=true 일 때만)
+ * - JDBC 대기 중에도 플랫폼 스레드 풀이 고갈되지 않는다.
+ * - 소스는 Java 11 이라 리플렉션으로 생성. Java 21 미만에서 실행하면 기존 스레드 풀 유지
+ * - 동시 요청이 늘어도 DB 접근은 커넥션 풀(spring.datasource.hikari.maximum-pool-size)만큼만,
+ *   나머지는 connection-timeout 동안 기다렸다가 실패한다.
+ * - 톰캣은 외부에서 넣은 executor 를 종료하지 않으므로 컨텍스트 종료 시 직접 종료 (톰캣이 먼저 멈춘 후)
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.web.virtual-threads", havingValue = "true")
+public class VirtualThreadConfig {
+
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            if (executor != null) {
+                protocolHandler.setExecutor(executor);
+            }
+        };
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (executor != null) {
+            executor.shutdown();
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            log.warn("Virtual threads require Java 21+ (running {}), keeping Tomcat thread pool",
+                    System.getProperty("java.version"));
+            return null;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Failed to create virtual thread executor", e);
+        }
+    }
+}
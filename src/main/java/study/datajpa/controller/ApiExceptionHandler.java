@@ -0,0 +1,29 @@
+package study.datajpa.controller;
+
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import study.datajpa.repository.InvalidCursorException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * 요청 값이 잘못된 경우 500 대신 400
+ * - sendError: 응답 형식은 스프링 부트 기본 오류 응답(/error)과 같다.
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    /** 지원하지 않는 정렬 속성 (?sort=...) */
+    @ExceptionHandler(PropertyReferenceException.class)
+    public void unsupportedProperty(PropertyReferenceException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    }
+
+    /** 키셋 페이징 커서 토큰 오류 (?cursor=...) */
+    @ExceptionHandler(InvalidCursorException.class)
+    public void invalidCursor(InvalidCursorException e, HttpServletResponse response) throws IOException {
+        response.sendError(HttpServletResponse.SC_BAD_REQUEST, e.getMessage());
+    }
+}
@@ -1,5 +1,7 @@
 package study.datajpa.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -7,18 +9,38 @@ import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.datajpa.dto.MemberDashboardDto;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.Cursor;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+import study.datajpa.repository.Window;
 
 import javax.annotation.PostConstruct;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.concurrent.CompletableFuture;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @RestController
 @RequiredArgsConstructor
 public class MemberController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 2000; //application.yml max-page-size 와 맞춤
+    private static final int EXPORT_FETCH_SIZE = 1000;
+    private static final int EXPORT_CLEAR_INTERVAL = 1000;
+
     private final MemberRepository memberRepository;
+    private final TeamRepository teamRepository;
+    private final ObjectMapper objectMapper;
 
     /** 도메인 클래스 컨버터 사용 전 */
     @GetMapping("/members/{id}")
@@ -48,11 +70,55 @@ public class MemberController {
      */
     @GetMapping("/members")
     public Page<MemberDto> list(@PageableDefault(size = 5, sort = "username", direction = Sort.Direction.DESC) Pageable pageable) {
-        //Page 내용을 DTO로 변환하기
-        return memberRepository.findAll(pageable)
+        //엔티티 조회 후 Page 내용을 DTO로 변환하지 않고 DTO 로 바로 조회 (엔티티 + 스냅샷 생성 비용 X)
+        return memberRepository.findMemberDtoPage(pageable);
+    }
+
+    /** 키셋(커서) 페이징 예제
+     * - 첫 페이지: /members?cursor= , 다음 페이지: 응답의 nextCursor 를 cursor 로 넘긴다.
+     * - offset, count 쿼리를 사용하지 않아서 페이지가 깊어져도 응답 시간이 일정하다.
+     */
+    @GetMapping(value = "/members", params = "cursor")
+    public Window<MemberDto> listByCursor(@RequestParam(value = "cursor", required = false) String cursor,
+                                          @RequestParam(value = "size", defaultValue = "20") int size) {
+        return memberRepository.findAllAfter(Cursor.decode(cursor), Math.min(size, MAX_CURSOR_PAGE_SIZE))
                 .map(MemberDto::new);
     }
 
+    /** 비동기 조회 예제
+     * - 세 조회를 동시에 실행하므로 응답 시간 = 가장 느린 조회 시간 (순서대로 실행하면 합)
+     * - CompletableFuture 를 반환하면 요청 스레드는 기다리지 않고 반납된다.
+     */
+    @GetMapping("/members/dashboard")
+    public CompletableFuture<MemberDashboardDto> dashboard(@RequestParam(value = "age", defaultValue = "10") int age,
+                                                           @PageableDefault(size = 5) Pageable pageable) {
+        return MemberDashboardDto.combine(
+                memberRepository.findAsyncByAge(age, pageable),
+                memberRepository.findMemberDtoAsync(),
+                teamRepository.countAsync());
+    }
+
+    /** 대용량 export 예제 (NDJSON: 한 줄에 회원 한 명)
+     * - 전체를 List 로 올리지 않고 DB 커서에서 읽는 대로 응답에 바로 쓴다.
+     * - StreamingResponseBody 는 별도 스레드에서 실행되므로 트랜잭션은 리포지토리(exportAll)에서 연다.
+     */
+    @GetMapping(value = "/members/export", produces = "application/x-ndjson")
+    public StreamingResponseBody export() {
+        ObjectWriter memberWriter = objectMapper.writerFor(MemberDto.class);
+        return out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, UTF_8));
+            memberRepository.exportAll(EXPORT_FETCH_SIZE, EXPORT_CLEAR_INTERVAL, member -> {
+                try {
+                    writer.write(memberWriter.writeValueAsString(new MemberDto(member)));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+    }
+
 //    @PostConstruct
     public void init(){
         for(int i=0; i<100; i++){
@@ -0,0 +1,36 @@
+package study.datajpa.dto;
+
+import lombok.Getter;
+import org.springframework.data.domain.Page;
+import study.datajpa.entity.Member;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 대시보드 화면: 서로 관계없는 조회 여러 개를 동시에 실행한 결과
+ */
+@Getter
+public class MemberDashboardDto {
+
+    private final Page<MemberDto> members;
+    private final List<MemberDto> membersWithTeam;
+    private final long teamCount;
+
+    public MemberDashboardDto(Page<MemberDto> members, List<MemberDto> membersWithTeam, long teamCount) {
+        this.members = members;
+        this.membersWithTeam = membersWithTeam;
+        this.teamCount = teamCount;
+    }
+
+    /** 모든 조회가 끝나면 합친다 (하나라도 실패하면 실패) */
+    public static CompletableFuture<MemberDashboardDto> combine(CompletableFuture<Page<Member>> members,
+                                                                CompletableFuture<List<MemberDto>> membersWithTeam,
+                                                                CompletableFuture<Long> teamCount) {
+        return CompletableFuture.allOf(members, membersWithTeam, teamCount)
+                .thenApply(ignored -> new MemberDashboardDto(
+                        members.join().map(MemberDto::new),
+                        membersWithTeam.join(),
+                        teamCount.join()));
+    }
+}
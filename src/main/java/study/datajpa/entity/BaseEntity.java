@@ -4,6 +4,7 @@ import lombok.Getter;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+import study.datajpa.outbox.OutboxEntityListener;
 
 import javax.persistence.Column;
 import javax.persistence.EntityListeners;
@@ -14,7 +15,7 @@ import java.time.LocalDateTime;
  * 실무에서 대부분의 엔티티는 등록시간, 수정시간이 필요하지만 등록자, 수정자는 없을 수도 있다.
  * 그래서 다음과 같이 Base 타입을 분리하고, 원하는 타입을 선택해서 상속한다.
  */
-@EntityListeners(AuditingEntityListener.class) //이벤트 기반 동작
+@EntityListeners({AuditingEntityListener.class, OutboxEntityListener.class}) //이벤트 기반 동작 (+ 아웃박스 기록)
 @MappedSuperclass
 @Getter
 public class BaseEntity extends BaseTimeEntity{
@@ -1,21 +1,50 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import javax.persistence.*;
 
 @Entity //기본적으로 default 생성자가 있어야 함
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) //JPQL 벌크 연산 시 Hibernate 가 region 전체를 무효화
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "username", "age"}) //출력하기 편하려고 넣음(*주의 연관관계 필드는 가급적 넣지X, 무한루프..)
+@Table(indexes = { //키셋 페이징 (username, id) 정렬/탐색용
+        @Index(name = "idx_member_username_id", columnList = "username, member_id"),
+        @Index(name = "idx_member_age_username_id", columnList = "age, username, member_id")})
 public class Member extends BaseEntity {
 
-    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    /**
+     * IDENTITY 전략은 insert 를 해야 id를 알 수 있어서 Hibernate 가 JDBC 배치 insert 를 꺼버린다.
+     * 대량 저장을 위해 SEQUENCE 전략 사용
+     * - id 를 미리 할당했으면 그대로 사용 (샤딩: id 로 샤드를 정함, MemberShardRouter)
+     */
+    @Id @GeneratedValue(generator = "MEMBER_SEQ_GENERATOR")
+    @GenericGenerator(
+            name = "MEMBER_SEQ_GENERATOR",
+            strategy = "study.datajpa.entity.support.AssignableSequenceGenerator",
+            parameters = {
+                    @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "member_seq"),
+                    @Parameter(name = SequenceStyleGenerator.INCREMENT_PARAM, value = "50")}) //pooled 최적화: 시퀀스 한 번 호출로 id 50개 확보
     @Column(name = "member_id") //조인할 때 편함, 관례!
     private Long id;
     private String username;
     private int age;
 
+    /**
+     * 낙관적 락: 수정 시 where version = ? 로 확인, 다른 트랜잭션이 먼저 수정했으면 예외
+     * (ObjectOptimisticLockingFailureException -> @OptimisticRetry 로 재시도)
+     */
+    @Version
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "team_id")
     private Team team;
@@ -0,0 +1,48 @@
+package study.datajpa.entity;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import java.time.LocalDateTime;
+
+/**
+ * 트랜잭셔널 아웃박스: 회원/팀 변경 기록 (study.datajpa.outbox)
+ * - 변경과 같은 트랜잭션에서 JDBC 로 insert, OutboxRelay 가 id 순서로 읽어서 내보내고 삭제
+ * - 테이블 생성(ddl-auto)과 조회용 매핑 (저장은 엔티티로 하지 않는다)
+ */
+@Entity
+@Table(name = "outbox_event")
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+public class OutboxEvent {
+
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY) //insert 순서 = id 순서
+    @Column(name = "outbox_event_id")
+    private Long id;
+
+    private String aggregateType; //Member, Team
+    private Long aggregateId; //벌크 연산이면 null
+
+    @Enumerated(EnumType.STRING)
+    private ChangeType changeType;
+
+    @Lob //벌크 삭제(deleteAllByIdInBatch 등)는 id 목록 전체를 기록하므로 길이 제한 X (넘치면 업무 트랜잭션까지 롤백)
+    private String payload; //JSON
+
+    private LocalDateTime createdDate;
+
+    public enum ChangeType {
+        CREATED, UPDATED, DELETED,
+        BULK_UPDATED //JPQL 벌크 연산: 대상 행 대신 쿼리와 파라미터를 기록
+    }
+}
@@ -1,22 +1,41 @@
 package study.datajpa.entity;
 
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import study.datajpa.outbox.OutboxEntityListener;
 
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE) //조회 위주라 2차 캐시 사용
+@EntityListeners(OutboxEntityListener.class) //변경을 아웃박스에 기록
 @Getter @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "name"})
 public class Team {
 
-    @Id @GeneratedValue
+    /** 샤딩 시 팀도 id 로 샤드를 정하고, 팀이 있는 회원은 팀과 같은 샤드에 저장 (MemberShardRouter) */
+    @Id @GeneratedValue(generator = "TEAM_SEQ_GENERATOR")
+    @GenericGenerator(
+            name = "TEAM_SEQ_GENERATOR",
+            strategy = "study.datajpa.entity.support.AssignableSequenceGenerator",
+            parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "team_seq"))
     @Column(name = "team_id")
     private Long id;
     private String name;
 
+    @Version //낙관적 락 (Member 참고)
+    @Setter(AccessLevel.NONE)
+    private Long version;
+
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
     @OneToMany(mappedBy = "team")
     List<Member> members = new ArrayList<>();
 
@@ -0,0 +1,90 @@
+package study.datajpa.entity.support;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerationException;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+import study.datajpa.config.Shards;
+import study.datajpa.repository.support.ShardContext;
+
+import java.io.Serializable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Properties;
+
+/**
+ * id 가 이미 있으면 그대로 사용하고, 없을 때만 시퀀스에서 가져온다.
+ *
+ * 샤딩 시 (SHARDS 설정, ShardingDataSourceConfig)
+ * - id = 시퀀스 값 * 샤드 수 + 지금 샤드 (ShardContext, 없으면 기본 샤드) -> id % 샤드 수 로 샤드를 찾는다.
+ * - 시퀀스는 기본 샤드의 것만 사용 (샤드마다 따로 쓰면 같은 값이 나와서 id 가 겹칠 수 있다)
+ * - 라우터를 거치지 않은 저장(커스텀 메서드, 순수 JPA 리포지토리)도 저장되는 샤드에 맞는 id 를 받는다.
+ * - 미리 넣은 id 가 지금 샤드와 맞지 않으면 예외
+ */
+public class AssignableSequenceGenerator extends SequenceStyleGenerator {
+
+    /** Hibernate 설정에 Shards 를 넣으면 샤딩 */
+    public static final String SHARDS = "study.datajpa.shards";
+
+    private Shards shards;
+    private String sequenceName;
+    private String nextValueSql;
+    private int incrementSize;
+    private long next = 1;
+    private long last = 0;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        super.configure(type, params, serviceRegistry);
+        shards = (Shards) serviceRegistry.getService(ConfigurationService.class).getSettings().get(SHARDS);
+        if (shards != null) {
+            sequenceName = ConfigurationHelper.getString(SEQUENCE_PARAM, params, DEF_SEQUENCE_NAME);
+            incrementSize = ConfigurationHelper.getInt(INCREMENT_PARAM, params, DEFAULT_INCREMENT_SIZE);
+            nextValueSql = serviceRegistry.getService(JdbcEnvironment.class).getDialect()
+                    .getSequenceNextValString(sequenceName);
+        }
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        Serializable id = session.getEntityPersister(null, object).getIdentifier(object, session);
+        if (shards == null) {
+            return id != null ? id : super.generate(session, object);
+        }
+
+        int shard = ShardContext.current() != null ? ShardContext.current() : Shards.DEFAULT_SHARD;
+        if (id == null) {
+            return nextValue() * shards.count() + shard;
+        }
+        if (shards.shardOf(id) != shard) {
+            throw new IdentifierGenerationException("Id " + id + " belongs to shard " + shards.shardOf(id) +
+                    ", not to shard " + shard);
+        }
+        return id;
+    }
+
+    /** pooled 와 같이 시퀀스 한 번 호출로 incrementSize 개 확보 */
+    private synchronized long nextValue() {
+        if (next > last) {
+            try (Connection connection = shards.getDataSource(Shards.DEFAULT_SHARD).getConnection();
+                 Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(nextValueSql)) {
+                resultSet.next();
+                long value = resultSet.getLong(1);
+                last = value;
+                next = Math.max(value - incrementSize + 1, 1);
+            } catch (SQLException e) {
+                throw new IdentifierGenerationException("Failed to read sequence " + sequenceName, e);
+            }
+        }
+        return next++;
+    }
+}
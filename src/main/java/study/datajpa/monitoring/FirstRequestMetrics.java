@@ -0,0 +1,59 @@
+package study.datajpa.monitoring;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 시작 후 첫 요청 메트릭 (warm-up 효과 확인, QueryWarmUp)
+ * - application.first.request.time: JVM 시작부터 첫 요청 완료까지 (application.ready.time 과 비교)
+ * - http.server.first.request: 첫 요청 처리 시간 (이후 요청은 http.server.requests)
+ * - /actuator 요청(헬스 체크 등)은 제외
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class FirstRequestMetrics extends OncePerRequestFilter {
+
+    private final MeterRegistry meterRegistry;
+    private final AtomicBoolean recorded = new AtomicBoolean();
+
+    public FirstRequestMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return recorded.get() || request.getRequestURI().startsWith("/actuator");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long start = System.nanoTime();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (recorded.compareAndSet(false, true)) {
+                long latencyNanos = System.nanoTime() - start;
+                long sinceJvmStartMillis = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+                TimeGauge.builder("http.server.first.request", () -> latencyNanos, TimeUnit.NANOSECONDS)
+                        .tag("uri", request.getRequestURI())
+                        .register(meterRegistry);
+                TimeGauge.builder("application.first.request.time", () -> sinceJvmStartMillis, TimeUnit.MILLISECONDS)
+                        .register(meterRegistry);
+            }
+        }
+    }
+}
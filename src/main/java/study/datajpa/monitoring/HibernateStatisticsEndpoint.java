@@ -0,0 +1,136 @@
+package study.datajpa.monitoring;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.EntityStatistics;
+import org.hibernate.stat.QueryStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hibernate 통계 + 느린 쿼리 (JMX: org.springframework.boot:type=Endpoint,name=Hibernate)
+ * - 쿼리 문자열, 초기화 기능이 있으므로 JMX 전용 (HTTP 로 노출 X, 인증 없는 웹 노출 방지)
+ * - 조회: 쿼리별 실행 횟수/시간/행 수/캐시 hit, 2차 캐시 region 별 hit 비율, 엔티티별 load/fetch, flush 횟수, 느린 쿼리
+ * - 초기화(clear): 통계와 느린 쿼리 초기화 (측정 구간을 새로 시작할 때)
+ * - 쿼리는 총 실행 시간(횟수 x 평균)이 큰 순서
+ */
+@Component
+@JmxEndpoint(id = "hibernate")
+public class HibernateStatisticsEndpoint {
+
+    private final Statistics statistics;
+    private final SlowQueryLog slowQueryLog;
+
+    public HibernateStatisticsEndpoint(EntityManagerFactory entityManagerFactory, SlowQueryLog slowQueryLog) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("enabled", statistics.isStatisticsEnabled());
+        result.put("since", Instant.ofEpochMilli(statistics.getStartTime()));
+        result.put("session", session());
+        result.put("queries", queries());
+        result.put("secondLevelCache", secondLevelCache());
+        result.put("entities", entities());
+        result.put("slowQueryThreshold", slowQueryLog.getThreshold());
+        result.put("slowQueries", slowQueryLog.getQueries());
+        return result;
+    }
+
+    @DeleteOperation
+    public void clear() {
+        statistics.clear();
+        slowQueryLog.clear();
+    }
+
+    private Map<String, Object> session() {
+        Map<String, Object> session = new LinkedHashMap<>();
+        session.put("sessionOpenCount", statistics.getSessionOpenCount());
+        session.put("transactionCount", statistics.getTransactionCount());
+        session.put("flushCount", statistics.getFlushCount());
+        session.put("prepareStatementCount", statistics.getPrepareStatementCount());
+        session.put("entityLoadCount", statistics.getEntityLoadCount());
+        session.put("entityFetchCount", statistics.getEntityFetchCount());
+        session.put("collectionLoadCount", statistics.getCollectionLoadCount());
+        session.put("collectionFetchCount", statistics.getCollectionFetchCount());
+        session.put("queryExecutionCount", statistics.getQueryExecutionCount());
+        session.put("queryExecutionMaxTime", statistics.getQueryExecutionMaxTime());
+        session.put("queryExecutionMaxTimeQuery", statistics.getQueryExecutionMaxTimeQueryString());
+        session.put("secondLevelCacheHitRatio",
+                ratio(statistics.getSecondLevelCacheHitCount(), statistics.getSecondLevelCacheMissCount()));
+        session.put("queryCacheHitRatio",
+                ratio(statistics.getQueryCacheHitCount(), statistics.getQueryCacheMissCount()));
+        return session;
+    }
+
+    private List<Map<String, Object>> queries() {
+        List<Map<String, Object>> queries = new ArrayList<>();
+        for (String query : statistics.getQueries()) {
+            QueryStatistics queryStatistics = statistics.getQueryStatistics(query);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("query", query);
+            item.put("executionCount", queryStatistics.getExecutionCount());
+            item.put("executionAvgTime", queryStatistics.getExecutionAvgTime());
+            item.put("executionMaxTime", queryStatistics.getExecutionMaxTime());
+            item.put("executionRowCount", queryStatistics.getExecutionRowCount());
+            item.put("totalTime", queryStatistics.getExecutionCount() * queryStatistics.getExecutionAvgTime());
+            item.put("cacheHitRatio", ratio(queryStatistics.getCacheHitCount(), queryStatistics.getCacheMissCount()));
+            queries.add(item);
+        }
+        queries.sort(Comparator.comparingLong((Map<String, Object> item) -> (Long) item.get("totalTime")).reversed());
+        return queries;
+    }
+
+    private Map<String, Object> secondLevelCache() {
+        Map<String, Object> regions = new LinkedHashMap<>();
+        for (String regionName : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(regionName);
+            if (region == null) {
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("hitCount", region.getHitCount());
+            item.put("missCount", region.getMissCount());
+            item.put("putCount", region.getPutCount());
+            item.put("hitRatio", ratio(region.getHitCount(), region.getMissCount()));
+            regions.put(regionName, item);
+        }
+        return regions;
+    }
+
+    private Map<String, Object> entities() {
+        Map<String, Object> entities = new LinkedHashMap<>();
+        for (String entityName : statistics.getEntityNames()) {
+            EntityStatistics entity = statistics.getEntityStatistics(entityName);
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("loadCount", entity.getLoadCount());
+            item.put("fetchCount", entity.getFetchCount());
+            item.put("insertCount", entity.getInsertCount());
+            item.put("updateCount", entity.getUpdateCount());
+            item.put("deleteCount", entity.getDeleteCount());
+            item.put("optimisticFailureCount", entity.getOptimisticFailureCount());
+            entities.put(entityName, item);
+        }
+        return entities;
+    }
+
+    /** 조회한 적 없으면 null */
+    private static Double ratio(long hit, long miss) {
+        long total = hit + miss;
+        return total == 0 ? null : (double) hit / total;
+    }
+}
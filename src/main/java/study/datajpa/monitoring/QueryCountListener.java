@@ -0,0 +1,40 @@
+package study.datajpa.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.support.RepositoryMethodContext;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * p6spy 로 실행되는 모든 SQL 을 집계
+ * - QueryCountScope: 요청/테스트 범위의 개수, N+1 감지
+ * - jdbc.statements 타이머: 리포지토리 메서드별 SQL 실행 시간 (max = 가장 느린 SQL)
+ */
+@Component
+@RequiredArgsConstructor
+public class QueryCountListener extends SimpleJdbcEventListener {
+
+    private static final String NO_REPOSITORY_METHOD = "none"; //지연 로딩 등 리포지토리 밖에서 실행된 SQL
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        String sql = statementInformation.getSql();
+        String repositoryMethod = RepositoryMethodContext.current();
+        QueryCountScope.record(sql, timeElapsedNanos, repositoryMethod);
+
+        Timer.builder("jdbc.statements")
+                .tag("repository.method", repositoryMethod != null ? repositoryMethod : NO_REPOSITORY_METHOD)
+                .tag("type", QueryCountScope.StatementType.of(sql).name().toLowerCase(Locale.ROOT))
+                .register(meterRegistry)
+                .record(timeElapsedNanos, TimeUnit.NANOSECONDS);
+    }
+}
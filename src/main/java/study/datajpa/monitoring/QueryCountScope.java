@@ -0,0 +1,154 @@
+package study.datajpa.monitoring;
+
+import org.springframework.core.NamedThreadLocal;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 현재 스레드에서 실행된 SQL 개수/시간 집계 (요청 단위는 QueryCountFilter, 테스트에서는 직접 start)
+ * - 같은 select 가 반복해서 실행되면 N+1 로 의심 (지연 로딩이 한 건씩 실행되는 경우)
+ * - 중첩해서 시작하면 바깥 범위에도 같이 집계된다.
+ *
+ * <pre>
+ * try (QueryCountScope scope = QueryCountScope.start()) {
+ *     ...
+ *     assertThat(scope.getSelectCount()).isEqualTo(1);
+ * }
+ * </pre>
+ */
+public class QueryCountScope implements AutoCloseable {
+
+    private static final ThreadLocal<QueryCountScope> CURRENT = new NamedThreadLocal<>("Query count scope");
+
+    private final QueryCountScope parent;
+    private final Map<String, Integer> selectExecutions = new HashMap<>();
+
+    private int statementCount;
+    private int selectCount;
+    private int insertCount;
+    private int updateCount;
+    private int deleteCount;
+    private long totalNanos;
+
+    private long slowestNanos;
+    private String slowestSql;
+    private String slowestRepositoryMethod;
+
+    private QueryCountScope(QueryCountScope parent) {
+        this.parent = parent;
+    }
+
+    public static QueryCountScope start() {
+        QueryCountScope scope = new QueryCountScope(CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    static void record(String sql, long elapsedNanos, String repositoryMethod) {
+        for (QueryCountScope scope = CURRENT.get(); scope != null; scope = scope.parent) {
+            scope.add(sql, elapsedNanos, repositoryMethod);
+        }
+    }
+
+    private void add(String sql, long elapsedNanos, String repositoryMethod) {
+        statementCount++;
+        totalNanos += elapsedNanos;
+        switch (StatementType.of(sql)) {
+            case SELECT:
+                selectCount++;
+                selectExecutions.merge(sql, 1, Integer::sum);
+                break;
+            case INSERT:
+                insertCount++;
+                break;
+            case UPDATE:
+                updateCount++;
+                break;
+            case DELETE:
+                deleteCount++;
+                break;
+            default:
+        }
+        if (slowestSql == null || elapsedNanos > slowestNanos) {
+            slowestNanos = elapsedNanos;
+            slowestSql = sql;
+            slowestRepositoryMethod = repositoryMethod;
+        }
+    }
+
+    public int getStatementCount() {
+        return statementCount;
+    }
+
+    public int getSelectCount() {
+        return selectCount;
+    }
+
+    public int getInsertCount() {
+        return insertCount;
+    }
+
+    public int getUpdateCount() {
+        return updateCount;
+    }
+
+    public int getDeleteCount() {
+        return deleteCount;
+    }
+
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public long getSlowestNanos() {
+        return slowestNanos;
+    }
+
+    public String getSlowestSql() {
+        return slowestSql;
+    }
+
+    /** 가장 느린 SQL 을 실행한 리포지토리 메서드 (리포지토리 밖에서 실행됐으면 null) */
+    public String getSlowestRepositoryMethod() {
+        return slowestRepositoryMethod;
+    }
+
+    /** 같은 select 가 가장 많이 반복된 횟수 (N+1 이면 N) */
+    public int getMaxRepeatedSelectCount() {
+        return selectExecutions.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    /** threshold 번 이상 반복된 select 가 있으면 그 SQL (N+1 의심) */
+    public Optional<String> findNPlusOneSuspect(int threshold) {
+        return selectExecutions.entrySet().stream()
+                .filter(entry -> entry.getValue() >= threshold)
+                .max(Map.Entry.comparingByValue())
+                .map(Map.Entry::getKey);
+    }
+
+    @Override
+    public void close() {
+        if (parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(parent);
+        }
+    }
+
+    enum StatementType {
+        SELECT, INSERT, UPDATE, DELETE, OTHER;
+
+        static StatementType of(String sql) {
+            String trimmed = sql.stripLeading().toLowerCase(Locale.ROOT);
+            for (StatementType type : values()) {
+                if (trimmed.startsWith(type.name().toLowerCase(Locale.ROOT))) {
+                    return type;
+                }
+            }
+            return OTHER;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package study.datajpa.monitoring;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Component;
+import study.datajpa.repository.support.RepositoryMethodContext;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 느린 쿼리(JPQL) 최근 capacity 건 보관 (JMX hibernate 엔드포인트로 조회)
+ * - Hibernate 통계(SlowQueryStatistics)가 쿼리 실행 시간을 알려준다.
+ * - 실행 중인 리포지토리 메서드와 인자 타입을 같이 기록 (RepositoryMethodContext)
+ *   JDBC 바인딩 값이 아니라 메서드 인자이고, 개인정보(username 등)가 남지 않도록 기본은 값 기록 X
+ * - monitoring.slow-query-capture-parameters=true: 인자 값도 기록 (재현용)
+ *   문자열, 숫자 등 단순 값만 parameterMaxLength 자까지, 이름이 maskedParameters 에 있는 파라미터는 가림
+ * - 느린 쿼리는 드물기 때문에 단순하게 synchronized 사용
+ */
+@Slf4j
+@Component
+public class SlowQueryLog {
+
+    private static final String MASK = "****";
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    @Getter
+    private final Duration threshold;
+    private final int capacity;
+    private final boolean captureParameters;
+    private final int parameterMaxLength;
+    private final Set<String> maskedParameters;
+    private final Deque<SlowQuery> queries = new ArrayDeque<>();
+
+    public SlowQueryLog(@Value("${monitoring.slow-query-threshold:1s}") Duration threshold,
+                        @Value("${monitoring.slow-query-capacity:100}") int capacity,
+                        @Value("${monitoring.slow-query-capture-parameters:false}") boolean captureParameters,
+                        @Value("${monitoring.slow-query-parameter-max-length:50}") int parameterMaxLength,
+                        @Value("${monitoring.slow-query-masked-parameters:username,password,email}") Set<String> maskedParameters) {
+        this.threshold = threshold;
+        this.capacity = capacity;
+        this.captureParameters = captureParameters;
+        this.parameterMaxLength = parameterMaxLength;
+        this.maskedParameters = maskedParameters;
+    }
+
+    void record(String query, int rows, long timeMillis) {
+        if (timeMillis < threshold.toMillis()) {
+            return;
+        }
+        Object[] arguments = RepositoryMethodContext.currentArguments();
+        SlowQuery slowQuery = new SlowQuery(Instant.now(), query, RepositoryMethodContext.current(),
+                parameterTypes(arguments),
+                captureParameters ? parameters(RepositoryMethodContext.currentMethod(), arguments) : null,
+                rows, timeMillis);
+        log.warn("Slow query: {}ms, rows={}, method={}, parameterTypes={}, parameters={} [{}]",
+                timeMillis, rows, slowQuery.getRepositoryMethod(), slowQuery.getParameterTypes(),
+                slowQuery.getParameters(), query);
+        synchronized (queries) {
+            if (queries.size() == capacity) {
+                queries.removeFirst();
+            }
+            queries.addLast(slowQuery);
+        }
+    }
+
+    /** 최근 것부터 */
+    public List<SlowQuery> getQueries() {
+        synchronized (queries) {
+            List<SlowQuery> result = new ArrayList<>(queries.size());
+            queries.descendingIterator().forEachRemaining(result::add);
+            return result;
+        }
+    }
+
+    public void clear() {
+        synchronized (queries) {
+            queries.clear();
+        }
+    }
+
+    private static List<String> parameterTypes(Object[] arguments) {
+        List<String> types = new ArrayList<>(arguments.length);
+        for (Object argument : arguments) {
+            types.add(argument == null ? "null" : argument.getClass().getSimpleName());
+        }
+        return types;
+    }
+
+    /** 파라미터 이름 = 값 (이름은 @Param, 없으면 컴파일된 이름) */
+    private List<String> parameters(Method method, Object[] arguments) {
+        String[] names = method != null ? PARAMETER_NAMES.getParameterNames(method) : null;
+        List<String> parameters = new ArrayList<>(arguments.length);
+        for (int i = 0; i < arguments.length; i++) {
+            String name = parameterName(method, names, i);
+            String value = maskedParameters.contains(name) ? MASK : value(arguments[i]);
+            parameters.add(name + "=" + value);
+        }
+        return parameters;
+    }
+
+    private static String parameterName(Method method, String[] names, int index) {
+        Param param = method != null ? method.getParameters()[index].getAnnotation(Param.class) : null;
+        if (param != null) {
+            return param.value();
+        }
+        return names != null ? names[index] : "arg" + index;
+    }
+
+    /** 단순 값만 (엔티티, 컬렉션 등은 toString 에 무엇이 들어갈지 모르므로 타입만) */
+    private String value(Object argument) {
+        if (argument == null) {
+            return "null";
+        }
+        if (!(argument instanceof CharSequence || argument instanceof Number || argument instanceof Boolean
+                || argument instanceof Enum || argument instanceof TemporalAccessor)) {
+            return argument.getClass().getSimpleName();
+        }
+        String value = argument.toString();
+        return value.length() <= parameterMaxLength ? value
+                : value.substring(0, parameterMaxLength) + "...(" + value.length() + " chars)";
+    }
+
+    @Getter
+    public static class SlowQuery {
+
+        private final Instant executedAt;
+        private final String query;
+        private final String repositoryMethod; //리포지토리 밖(지연 로딩 등)이면 null
+        private final List<String> parameterTypes;
+        private final List<String> parameters; //이름=값, 값을 기록하지 않으면(기본) null
+        private final int rows;
+        private final long timeMillis;
+
+        SlowQuery(Instant executedAt, String query, String repositoryMethod, List<String> parameterTypes,
+                  List<String> parameters, int rows, long timeMillis) {
+            this.executedAt = executedAt;
+            this.query = query;
+            this.repositoryMethod = repositoryMethod;
+            this.parameterTypes = parameterTypes;
+            this.parameters = parameters;
+            this.rows = rows;
+            this.timeMillis = timeMillis;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package study.datajpa.monitoring;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.internal.StatisticsImpl;
+import org.hibernate.stat.spi.StatisticsFactory;
+
+/**
+ * Hibernate 기본 통계 + 쿼리 실행 시간이 기준 이상이면 SlowQueryLog 에 기록
+ * - hibernate.stats.factory 로 등록 (HibernateStatisticsConfig)
+ * - generate_statistics 가 켜져 있어야 호출된다.
+ */
+public class SlowQueryStatistics extends StatisticsImpl {
+
+    private final SlowQueryLog slowQueryLog;
+
+    private SlowQueryStatistics(SessionFactoryImplementor sessionFactory, SlowQueryLog slowQueryLog) {
+        super(sessionFactory);
+        this.slowQueryLog = slowQueryLog;
+    }
+
+    public static StatisticsFactory factory(SlowQueryLog slowQueryLog) {
+        return sessionFactory -> new SlowQueryStatistics(sessionFactory, slowQueryLog);
+    }
+
+    @Override
+    public void queryExecuted(String hql, int rows, long time) {
+        super.queryExecuted(hql, rows, time);
+        slowQueryLog.record(hql, rows, time);
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * 파일에 한 줄에 하나씩 JSON 으로 추가 (NDJSON)
+ * - 배치마다 force -> 삭제(커밋) 전에 디스크에 기록됨
+ */
+public class FileOutboxSink implements OutboxSink {
+
+    private static final byte[] NEW_LINE = {'\n'};
+
+    private final Path file;
+    private final ObjectMapper objectMapper;
+
+    public FileOutboxSink(Path file, ObjectMapper objectMapper) {
+        this.file = file;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxRecord> records) throws IOException {
+        try (FileChannel channel = FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            OutputStream out = Channels.newOutputStream(channel);
+            for (OutboxRecord record : records) {
+                out.write(objectMapper.writeValueAsBytes(record));
+                out.write(NEW_LINE);
+            }
+            out.flush();
+            channel.force(false);
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package study.datajpa.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.action.spi.BeforeTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+import study.datajpa.entity.OutboxEvent.ChangeType;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 현재 트랜잭션에 아웃박스 기록 추가
+ * - 세션(트랜잭션)마다 모아두었다가 커밋 직전(flush 후)에 JDBC 배치 insert 1번 -> 변경과 기록이 같이 커밋/롤백
+ * - 롤백되면 모아둔 기록은 버린다.
+ * - 엔티티 변경은 OutboxEntityListener, 벌크 연산은 OutboxBulkCapture 가 호출
+ * - outbox.enabled=true 일 때만 등록 (기본 꺼짐: 모든 쓰기에 insert 가 하나 더 붙고, sink 가 없으면 테이블이 계속 커진다)
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class Outbox {
+
+    private static final String INSERT_SQL = "insert into outbox_event " +
+            "(aggregate_type, aggregate_id, change_type, payload, created_date) values (?, ?, ?, ?, ?)";
+
+    private final EntityManager em;
+    private final ObjectMapper objectMapper;
+    private final Map<SessionImplementor, Buffer> buffers = new ConcurrentHashMap<>();
+
+    public Outbox(EntityManager em, ObjectMapper objectMapper) {
+        this.em = em;
+        this.objectMapper = objectMapper;
+    }
+
+    public void append(String aggregateType, Long aggregateId, ChangeType changeType, Map<String, ?> payload) {
+        Assert.state(TransactionSynchronizationManager.isActualTransactionActive(),
+                "Outbox records must be appended within a transaction");
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot serialize outbox payload of " + aggregateType, e);
+        }
+        SessionImplementor session = em.unwrap(SessionImplementor.class);
+        buffers.computeIfAbsent(session, this::register)
+                .add(new Object[]{aggregateType, aggregateId, changeType.name(), json, Timestamp.valueOf(LocalDateTime.now())});
+    }
+
+    private Buffer register(SessionImplementor session) {
+        Buffer buffer = new Buffer(session);
+        session.getActionQueue().registerProcess((BeforeTransactionCompletionProcess) buffer);
+        session.getActionQueue().registerProcess((AfterTransactionCompletionProcess) buffer);
+        return buffer;
+    }
+
+    /** 세션 하나에서 모은 기록 (세션은 한 스레드에서만 사용) */
+    private class Buffer implements BeforeTransactionCompletionProcess, AfterTransactionCompletionProcess {
+
+        private final SessionImplementor session;
+        private final List<Object[]> rows = new ArrayList<>();
+
+        Buffer(SessionImplementor session) {
+            this.session = session;
+        }
+
+        void add(Object[] row) {
+            rows.add(row);
+        }
+
+        @Override
+        public void doBeforeTransactionCompletion(SessionImplementor session) {
+            session.doWork(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL)) {
+                    for (Object[] row : rows) {
+                        statement.setString(1, (String) row[0]);
+                        if (row[1] != null) {
+                            statement.setLong(2, (Long) row[1]);
+                        } else {
+                            statement.setNull(2, Types.BIGINT);
+                        }
+                        statement.setString(3, (String) row[2]);
+                        statement.setString(4, (String) row[3]);
+                        statement.setTimestamp(5, (Timestamp) row[4]);
+                        statement.addBatch();
+                    }
+                    statement.executeBatch();
+                }
+            });
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            buffers.remove(this.session);
+        }
+    }
+}
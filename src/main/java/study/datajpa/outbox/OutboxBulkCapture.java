@@ -0,0 +1,97 @@
+package study.datajpa.outbox;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.stereotype.Component;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.OutboxEvent.ChangeType;
+import study.datajpa.entity.Team;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Member/Team 리포지토리의 벌크 연산(@Modifying, deleteAllInBatch 등)을 아웃박스에 기록
+ * - 벌크 연산은 엔티티를 거치지 않아서 OutboxEntityListener 가 호출되지 않는다.
+ * - 바뀐 행 대신 쿼리와 파라미터, 수정 건수를 기록 (소비하는 쪽에서 같은 조건으로 반영)
+ * - 순수 JPA 벌크 연산(MemberJpaRepository)은 append() 를 직접 호출
+ * - 아웃박스와 같이 outbox.enabled=true 일 때만 등록
+ */
+@Component
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class OutboxBulkCapture implements RepositoryProxyPostProcessor {
+
+    private static final Set<Class<?>> AGGREGATES = Set.of(Member.class, Team.class);
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final Outbox outbox;
+
+    public OutboxBulkCapture(Outbox outbox) {
+        this.outbox = outbox;
+    }
+
+    @Override
+    public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+        Class<?> domainType = repositoryInformation.getDomainType();
+        if (!AGGREGATES.contains(domainType)) {
+            return;
+        }
+        String repositoryName = repositoryInformation.getRepositoryInterface().getSimpleName();
+        factory.addAdvice((MethodInterceptor) invocation -> {
+            Object result = invocation.proceed();
+            Method method = invocation.getMethod();
+            if (AnnotatedElementUtils.hasAnnotation(method, Modifying.class) || method.getName().endsWith("InBatch")) {
+                Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+                append(domainType, repositoryName + "." + method.getName(), query != null ? query.value() : null,
+                        parameters(method, invocation.getArguments()), result);
+            }
+            return result;
+        });
+    }
+
+    public void append(Class<?> domainType, String method, String query, Map<String, Object> parameters, Object rows) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("method", method);
+        payload.put("query", query);
+        payload.put("parameters", parameters);
+        payload.put("rows", rows);
+        outbox.append(domainType.getSimpleName(), null, ChangeType.BULK_UPDATED, payload);
+    }
+
+    private static Map<String, Object> parameters(Method method, Object[] arguments) {
+        String[] names = PARAMETER_NAMES.getParameterNames(method);
+        Map<String, Object> parameters = new LinkedHashMap<>();
+        for (int i = 0; i < arguments.length; i++) {
+            parameters.put(names != null ? names[i] : "arg" + i, value(arguments[i]));
+        }
+        return parameters;
+    }
+
+    /** 엔티티(deleteAllInBatch 등)는 id 로 기록 (연관관계를 따라 직렬화하지 않도록) */
+    private static Object value(Object argument) {
+        if (argument instanceof Member) {
+            return ((Member) argument).getId();
+        }
+        if (argument instanceof Team) {
+            return ((Team) argument).getId();
+        }
+        if (argument instanceof Iterable) {
+            List<Object> values = new ArrayList<>();
+            ((Iterable<?>) argument).forEach(element -> values.add(value(element)));
+            return values;
+        }
+        return argument;
+    }
+}
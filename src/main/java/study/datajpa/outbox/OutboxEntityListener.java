@@ -0,0 +1,77 @@
+package study.datajpa.outbox;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.OutboxEvent.ChangeType;
+import study.datajpa.entity.Team;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 엔티티 등록/수정/삭제를 아웃박스에 기록 (BaseEntity, Team 의 @EntityListeners)
+ * - AuditingEntityListener 처럼 Hibernate 가 스프링 빈으로 생성 (SpringBeanContainer) -> Outbox 주입
+ * - 기록은 변경 후 상태 (연관관계는 id 만)
+ * - 아웃박스가 꺼져 있으면(outbox.enabled) 아무것도 하지 않는다.
+ */
+public class OutboxEntityListener {
+
+    private ObjectProvider<Outbox> outbox;
+
+    /** EntityManagerFactory 생성 중에 만들어지므로 Outbox 는 처음 사용할 때 가져온다 */
+    @Autowired
+    public void setOutbox(ObjectProvider<Outbox> outbox) {
+        this.outbox = outbox;
+    }
+
+    @PostPersist
+    public void created(Object entity) {
+        append(entity, ChangeType.CREATED);
+    }
+
+    @PostUpdate
+    public void updated(Object entity) {
+        append(entity, ChangeType.UPDATED);
+    }
+
+    @PostRemove
+    public void deleted(Object entity) {
+        append(entity, ChangeType.DELETED);
+    }
+
+    private void append(Object entity, ChangeType changeType) {
+        Outbox outbox = this.outbox != null ? this.outbox.getIfAvailable() : null;
+        if (outbox == null) {
+            return;
+        }
+        if (entity instanceof Member) {
+            Member member = (Member) entity;
+            outbox.append("Member", member.getId(), changeType, payload(member));
+        } else if (entity instanceof Team) {
+            Team team = (Team) entity;
+            outbox.append("Team", team.getId(), changeType, payload(team));
+        }
+    }
+
+    private static Map<String, Object> payload(Member member) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", member.getId());
+        payload.put("username", member.getUsername());
+        payload.put("age", member.getAge());
+        payload.put("teamId", member.getTeam() != null ? member.getTeam().getId() : null); //프록시 초기화 X
+        payload.put("version", member.getVersion());
+        return payload;
+    }
+
+    private static Map<String, Object> payload(Team team) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("id", team.getId());
+        payload.put("name", team.getName());
+        payload.put("version", team.getVersion());
+        return payload;
+    }
+}
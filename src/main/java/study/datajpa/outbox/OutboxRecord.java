@@ -0,0 +1,35 @@
+package study.datajpa.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Getter;
+import lombok.ToString;
+import study.datajpa.entity.OutboxEvent.ChangeType;
+
+import java.time.LocalDateTime;
+
+/**
+ * OutboxRelay 가 내보내는 기록 (outbox_event 한 행)
+ * - payload 는 저장된 JSON 그대로 내보낸다.
+ */
+@Getter
+@ToString
+public class OutboxRecord {
+
+    private final Long id;
+    private final String aggregateType;
+    private final Long aggregateId;
+    private final ChangeType changeType;
+    @JsonRawValue
+    private final String payload;
+    private final LocalDateTime createdDate;
+
+    public OutboxRecord(Long id, String aggregateType, Long aggregateId, ChangeType changeType,
+                        String payload, LocalDateTime createdDate) {
+        this.id = id;
+        this.aggregateType = aggregateType;
+        this.aggregateId = aggregateId;
+        this.changeType = changeType;
+        this.payload = payload;
+        this.createdDate = createdDate;
+    }
+}
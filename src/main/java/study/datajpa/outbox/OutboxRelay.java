@@ -0,0 +1,147 @@
+package study.datajpa.outbox;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.config.Shards;
+import study.datajpa.entity.OutboxEvent.ChangeType;
+import study.datajpa.repository.support.ShardContext;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * outbox_event 를 id 순서로 읽어서 OutboxSink 로 내보내고 삭제
+ * - relayInterval 마다 batchSize 개씩, 밀려 있으면 남은 게 없을 때까지 반복
+ * - 내보낸 후 같은 트랜잭션에서 삭제 -> 내보낸 직후 죽으면 다음에 다시 보낸다. (at-least-once)
+ * - 순서를 지키기 위해 relay 는 애플리케이션 인스턴스 하나에서만 실행한다고 가정
+ * - 샤딩 시 샤드마다 차례로 내보낸다. (순서는 샤드 안에서만 보장)
+ * - OutboxSink 가 없으면 꺼짐: 내보내지도 삭제하지도 않는다. (OutboxConfig)
+ * - 아웃박스와 같이 outbox.enabled=true 일 때만 등록
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "outbox.enabled", havingValue = "true")
+public class OutboxRelay {
+
+    private static final String SELECT_SQL = "select outbox_event_id, aggregate_type, aggregate_id, change_type, " +
+            "payload, created_date from outbox_event order by outbox_event_id limit ?";
+    private static final String DELETE_SQL = "delete from outbox_event where outbox_event_id = ?";
+
+    private static final RowMapper<OutboxRecord> ROW_MAPPER = (rs, rowNum) -> new OutboxRecord(
+            rs.getLong(1),
+            rs.getString(2),
+            rs.getObject(3, Long.class),
+            ChangeType.valueOf(rs.getString(4)),
+            rs.getString(5),
+            rs.getTimestamp(6).toLocalDateTime());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxSink sink;
+    private final int batchSize;
+    private final ScheduledExecutorService scheduler;
+    private final Counter published;
+    private final ObjectProvider<Shards> shards;
+
+    public OutboxRelay(JdbcTemplate jdbcTemplate,
+                       PlatformTransactionManager transactionManager,
+                       ObjectProvider<OutboxSink> sink,
+                       MeterRegistry meterRegistry,
+                       ObjectProvider<Shards> shards,
+                       @Value("${outbox.relay.interval:1s}") Duration relayInterval,
+                       @Value("${outbox.relay.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.sink = sink.getIfAvailable();
+        this.batchSize = batchSize;
+        this.published = meterRegistry.counter("outbox.relay.published");
+        this.shards = shards;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        if (this.sink == null) {
+            log.info("No outbox sink configured, outbox records are kept in outbox_event (outbox.sink.type)");
+            return;
+        }
+        this.scheduler.scheduleWithFixedDelay(this::relayQuietly,
+                relayInterval.toMillis(), relayInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 쌓인 기록을 모두 내보낸다. (주기적으로 호출됨, 바로 내보내야 하면 직접 호출)
+     * @return 내보낸 기록 수 (sink 가 없으면 0)
+     */
+    public synchronized int relay() {
+        if (sink == null) {
+            return 0;
+        }
+        Shards shards = this.shards.getIfAvailable();
+        if (shards == null) {
+            return relayShard();
+        }
+        int total = 0;
+        for (int shard = 0; shard < shards.count(); shard++) {
+            try (ShardContext.Scope ignored = ShardContext.open(shard)) {
+                total += relayShard();
+            }
+        }
+        return total;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        relayQuietly();
+    }
+
+    private int relayShard() {
+        int total = 0;
+        int count;
+        do {
+            count = relayBatch();
+            total += count;
+        } while (count == batchSize);
+        return total;
+    }
+
+    private int relayBatch() {
+        Integer count = transactionTemplate.execute(status -> {
+            List<OutboxRecord> records = jdbcTemplate.query(SELECT_SQL, ROW_MAPPER, batchSize);
+            if (records.isEmpty()) {
+                return 0;
+            }
+            try {
+                sink.publish(records);
+            } catch (Exception e) {
+                throw new IllegalStateException("Failed to publish outbox records from id " + records.get(0).getId(), e);
+            }
+            jdbcTemplate.batchUpdate(DELETE_SQL, records.stream()
+                    .map(record -> new Object[]{record.getId()})
+                    .collect(Collectors.toList()));
+            return records.size();
+        });
+        published.increment(count);
+        return count;
+    }
+
+    private void relayQuietly() {
+        try {
+            relay();
+        } catch (RuntimeException e) {
+            log.error("Failed to relay outbox records, retry on next relay", e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package study.datajpa.outbox;
+
+import java.util.List;
+
+/**
+ * 아웃박스 기록을 내보낼 곳 (메시지 브로커, 파일, ...)
+ * - 예외 없이 반환하면 전달된 것으로 보고 outbox_event 에서 삭제한다.
+ * - 예외가 나면 다음 relay 에 같은 기록을 다시 보낸다. (at-least-once, 소비하는 쪽은 id 로 중복 제거)
+ */
+public interface OutboxSink {
+
+    void publish(List<OutboxRecord> records) throws Exception;
+}
@@ -0,0 +1,39 @@
+package study.datajpa.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 메모리 큐 (같은 프로세스 안에서 소비, 테스트)
+ * - 크기 제한: 소비가 밀려서 큐가 차면 예외 -> 기록은 outbox_event 에 남아 있다가 다음 relay 에 다시 시도
+ */
+public class QueueOutboxSink implements OutboxSink {
+
+    private final BlockingQueue<OutboxRecord> queue;
+
+    public QueueOutboxSink(int capacity) {
+        this.queue = new ArrayBlockingQueue<>(capacity);
+    }
+
+    @Override
+    public synchronized void publish(List<OutboxRecord> records) {
+        if (queue.remainingCapacity() < records.size()) {
+            throw new IllegalStateException("Outbox queue is full: remaining=" + queue.remainingCapacity()
+                    + ", records=" + records.size());
+        }
+        queue.addAll(records);
+    }
+
+    public OutboxRecord poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return queue.poll(timeout, unit);
+    }
+
+    public List<OutboxRecord> drain() {
+        List<OutboxRecord> records = new ArrayList<>();
+        queue.drainTo(records);
+        return records;
+    }
+}
@@ -0,0 +1,60 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+import study.datajpa.entity.Member;
+
+import java.util.Base64;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * 키셋(seek) 페이징 커서
+ * - 마지막으로 읽은 행의 (username, id) 를 기억했다가 where 조건으로 다음 페이지를 바로 찾아간다.
+ * - offset 을 건너뛰지 않으므로 페이지가 깊어져도 조회 비용이 일정하다.
+ * - 클라이언트에는 내부 값을 알 수 없는 토큰(Base64)으로만 전달
+ * - username 이 null 이면 구분자 없이 id 만 (문자열 "null" 과 구분)
+ */
+@Getter
+public class Cursor {
+
+    private static final char SEPARATOR = ':';
+
+    private final String username;
+    private final Long id;
+
+    public Cursor(String username, Long id) {
+        this.username = username;
+        this.id = id;
+    }
+
+    public static Cursor of(Member member) {
+        return new Cursor(member.getUsername(), member.getId());
+    }
+
+    public String encode() {
+        //id 에는 구분자가 없으니 앞에 둔다
+        String raw = username != null ? id + String.valueOf(SEPARATOR) + username : String.valueOf(id);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(UTF_8));
+    }
+
+    /**
+     * 토큰이 비어 있으면 첫 페이지(null)
+     * @throws InvalidCursorException 이 클래스가 만든 토큰이 아니면
+     */
+    public static Cursor decode(String token) {
+        if (!StringUtils.hasText(token)) {
+            return null;
+        }
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), UTF_8);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+            if (separatorIndex < 0) {
+                return new Cursor(null, Long.valueOf(raw));
+            }
+            return new Cursor(raw.substring(separatorIndex + 1), Long.valueOf(raw.substring(0, separatorIndex)));
+        } catch (IllegalArgumentException e) { //Base64, 숫자 형식 오류
+            throw new InvalidCursorException(token, e);
+        }
+    }
+}
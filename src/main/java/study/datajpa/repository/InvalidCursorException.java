@@ -0,0 +1,11 @@
+package study.datajpa.repository;
+
+/**
+ * 클라이언트가 넘긴 커서 토큰을 해석할 수 없다 (요청 값 오류 -> 400, ApiExceptionHandler)
+ */
+public class InvalidCursorException extends IllegalArgumentException {
+
+    public InvalidCursorException(String token, Throwable cause) {
+        super("Invalid cursor: " + token, cause);
+    }
+}
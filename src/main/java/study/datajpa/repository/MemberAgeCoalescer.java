@@ -0,0 +1,204 @@
+package study.datajpa.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.config.BulkAuditing;
+import study.datajpa.config.Shards;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.OutboxEvent.ChangeType;
+import study.datajpa.outbox.Outbox;
+import study.datajpa.repository.support.DataChangePublisher;
+import study.datajpa.repository.support.ShardContext;
+
+import javax.annotation.PreDestroy;
+import javax.persistence.EntityManagerFactory;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 회원 나이(카운터) 증가를 모아서 한 번에 반영 (write coalescing)
+ * - 이벤트마다 UPDATE 하지 않고 member_id 별 LongAdder 에 더해 두었다가 flushInterval 마다 JDBC 배치 UPDATE 1번
+ * - 같은 회원을 N번 증가해도 flush 마다 UPDATE 는 1행 (인기 회원일수록 효과가 크다)
+ * - DB 반영 실패 시 증가분을 다시 쌓아서 다음 flush 에 재시도, 애플리케이션 종료 시 남은 증가분 flush
+ *
+ * ※ 주의
+ * - 메모리에 있는 동안은 DB 에 없다. (최대 flushInterval 만큼 늦게 반영, 프로세스가 비정상 종료되면 유실)
+ * - JDBC 로 직접 수정하므로 2차 캐시에서 해당 회원을 제거한다. 이미 영속성 컨텍스트에 있는 엔티티는 갱신되지 않는다.
+ * - 아웃박스를 켜면(outbox.enabled) 회원별 증가분(ageDelta)을 기록한다.
+ * - 샤딩 시 샤드마다 따로 커밋된다.
+ */
+@Slf4j
+@Component
+public class MemberAgeCoalescer {
+
+    private static final String UPDATE_SQL = "update member set age = age + ?, version = version + 1, " +
+            "last_modified_date = ?, last_modified_by = ? where member_id = ?";
+
+    private final Map<Long, LongAdder> pending = new ConcurrentHashMap<>();
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManagerFactory entityManagerFactory;
+    private final BulkAuditing bulkAuditing;
+    private final ObjectProvider<Outbox> outbox;
+    private final DataChangePublisher dataChangePublisher;
+    private final ScheduledExecutorService scheduler;
+    private final Counter increments;
+    private final Counter flushedRows;
+    private final ObjectProvider<Shards> shards;
+
+    public MemberAgeCoalescer(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              EntityManagerFactory entityManagerFactory,
+                              BulkAuditing bulkAuditing,
+                              ObjectProvider<Outbox> outbox,
+                              DataChangePublisher dataChangePublisher,
+                              MeterRegistry meterRegistry,
+                              ObjectProvider<Shards> shards,
+                              @Value("${member.age-coalescer.flush-interval:1s}") Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.entityManagerFactory = entityManagerFactory;
+        this.bulkAuditing = bulkAuditing;
+        this.outbox = outbox;
+        this.dataChangePublisher = dataChangePublisher;
+        this.increments = meterRegistry.counter("member.age.coalescer.increments"); //요청된 증가 횟수
+        this.flushedRows = meterRegistry.counter("member.age.coalescer.flushed.rows"); //실제 UPDATE 행 수
+        this.shards = shards;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.scheduler.scheduleWithFixedDelay(this::flushQuietly,
+                flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /** 여러 스레드에서 동시에 호출 가능 (락 X) */
+    public void increaseAge(Long memberId, long delta) {
+        increments.increment();
+        add(memberId, delta);
+    }
+
+    /**
+     * 모아둔 증가분을 DB 에 반영 (주기적으로 호출됨, 바로 반영이 필요하면 직접 호출)
+     * @return UPDATE 한 회원 수
+     */
+    public synchronized int flush() {
+        Map<Long, Long> deltas = drain();
+        if (deltas.isEmpty()) {
+            return 0;
+        }
+        Shards shards = this.shards.getIfAvailable();
+        if (shards == null) {
+            return flush(deltas);
+        }
+
+        //샤딩 시 회원 id 로 샤드를 나눠서 샤드마다 트랜잭션 (실패한 샤드만 다시 쌓는다)
+        Map<Integer, Map<Long, Long>> deltasByShard = new TreeMap<>();
+        deltas.forEach((memberId, delta) -> deltasByShard
+                .computeIfAbsent(shards.shardOf(memberId), shard -> new HashMap<>()).put(memberId, delta));
+        int flushed = 0;
+        RuntimeException failure = null;
+        for (Map.Entry<Integer, Map<Long, Long>> entry : deltasByShard.entrySet()) {
+            try (ShardContext.Scope ignored = ShardContext.open(entry.getKey())) {
+                flushed += flush(entry.getValue());
+            } catch (RuntimeException e) {
+                if (failure == null) {
+                    failure = e;
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return flushed;
+    }
+
+    private int flush(Map<Long, Long> deltas) {
+        try {
+            List<Object[]> batchArgs = new ArrayList<>(deltas.size());
+            transactionTemplate.executeWithoutResult(status -> {
+                Timestamp now = Timestamp.valueOf(bulkAuditing.now());
+                String auditor = bulkAuditing.auditor();
+                deltas.forEach((memberId, delta) -> batchArgs.add(new Object[]{delta, now, auditor, memberId}));
+                jdbcTemplate.batchUpdate(UPDATE_SQL, batchArgs);
+                //JDBC 로 직접 수정하므로 아웃박스도 직접 기록 (증가분만)
+                outbox.ifAvailable(records -> deltas.forEach((memberId, delta) -> records.append("Member", memberId,
+                        ChangeType.UPDATED, Map.of("id", memberId, "ageDelta", delta))));
+                dataChangePublisher.changed(Member.class);
+            });
+        } catch (RuntimeException e) {
+            deltas.forEach(this::add); //다음 flush 에 다시 시도
+            throw e;
+        }
+
+        deltas.keySet().forEach(memberId -> entityManagerFactory.getCache().evict(Member.class, memberId));
+        flushedRows.increment(deltas.size());
+        return deltas.size();
+    }
+
+    /** 아직 DB 에 반영되지 않은 증가분 */
+    public long pendingDelta(Long memberId) {
+        LongAdder adder = pending.get(memberId);
+        return adder != null ? adder.sum() : 0;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        scheduler.shutdown();
+        scheduler.awaitTermination(30, TimeUnit.SECONDS);
+        flush();
+    }
+
+    /** 변화가 없던 회원은 map 에서 빼서 map 이 계속 커지지 않도록 한다. */
+    private Map<Long, Long> drain() {
+        Map<Long, Long> deltas = new HashMap<>();
+        for (Map.Entry<Long, LongAdder> entry : pending.entrySet()) {
+            Long memberId = entry.getKey();
+            LongAdder adder = entry.getValue();
+            long delta = adder.sumThenReset();
+            if (delta == 0 && pending.remove(memberId, adder)) {
+                delta = adder.sumThenReset(); //빼는 사이에 더해진 값
+            }
+            if (delta != 0) {
+                deltas.put(memberId, delta);
+            }
+        }
+        return deltas;
+    }
+
+    private void add(Long memberId, long delta) {
+        while (delta != 0) {
+            LongAdder adder = pending.computeIfAbsent(memberId, id -> new LongAdder());
+            adder.add(delta);
+            if (pending.get(memberId) == adder) {
+                return;
+            }
+            //flush 가 방금 이 adder 를 map 에서 뺐다 -> 아직 못 가져간 값은 새 adder 로 옮긴다
+            delta = adder.sumThenReset();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("Failed to flush member age increments, retry on next flush", e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import javax.annotation.PreDestroy;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 청크 단위 병렬 벌크 수정
+ * - bulkAgePlus 를 한 번의 UPDATE 로 실행하면 대상 행 전체가 트랜잭션 끝까지 잠기고 undo 로그가 커진다.
+ * - member_id 범위를 chunkSize 로 나누고, 청크마다 짧은 트랜잭션(REQUIRES_NEW, 타임아웃)으로 병렬 실행
+ * - 청크는 parallelism 개씩만 제출 (청크 수만큼 작업을 큐에 쌓지 않는다)
+ * - 청크 하나가 실패하면 남은 청크는 실행하지 않고 그 예외를 던진다.
+ * - 주의: 청크마다 커밋되므로 중간에 실패하면 이미 끝난 청크는 롤백되지 않는다.
+ */
+@Component
+public class MemberBulkUpdateExecutor {
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final TransactionTemplate chunkTransaction;
+    private final ExecutorService executor;
+    private final int parallelism;
+
+    public MemberBulkUpdateExecutor(MemberJpaRepository memberJpaRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${member.bulk-update.parallelism:4}") int parallelism,
+                                    @Value("${member.bulk-update.chunk-timeout-seconds:5}") int chunkTimeoutSeconds) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.chunkTransaction = new TransactionTemplate(transactionManager);
+        this.chunkTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.chunkTransaction.setTimeout(chunkTimeoutSeconds); //청크 하나가 락을 잡고 있는 최대 시간
+        this.executor = Executors.newFixedThreadPool(parallelism); //DB 커넥션 풀보다 작게
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @param listener 청크가 끝날 때마다 호출 (여러 스레드에서 호출되므로 thread-safe 해야 한다)
+     */
+    public BulkUpdateResult bulkAgePlus(int age, int chunkSize, Consumer<ChunkProgress> listener) {
+        Assert.isTrue(chunkSize > 0, "chunkSize must be greater than 0");
+
+        long start = System.nanoTime();
+        Long minId = memberJpaRepository.findMinId();
+        Long maxId = memberJpaRepository.findMaxId();
+        if (minId == null || maxId == null) {
+            return new BulkUpdateResult(0, 0, elapsedMillis(start));
+        }
+
+        int totalChunks = Math.toIntExact((maxId - minId) / chunkSize + 1);
+        AtomicInteger completedChunks = new AtomicInteger();
+        CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+        Set<Future<Integer>> running = new HashSet<>();
+        int submittedChunks = 0;
+        long updatedRows = 0;
+        try {
+            //동시에 parallelism 개까지만 제출하고, 하나 끝날 때마다 다음 청크 제출
+            while (submittedChunks < Math.min(parallelism, totalChunks)) {
+                running.add(submitChunk(completion, age, minId, maxId, chunkSize, submittedChunks++,
+                        completedChunks, totalChunks, listener));
+            }
+            while (!running.isEmpty()) {
+                Future<Integer> done = completion.take();
+                running.remove(done);
+                updatedRows += done.get();
+                if (submittedChunks < totalChunks) {
+                    running.add(submitChunk(completion, age, minId, maxId, chunkSize, submittedChunks++,
+                            completedChunks, totalChunks, listener));
+                }
+            }
+        } catch (ExecutionException e) {
+            //첫 실패에서 멈춘다: 남은 청크는 제출하지 않고, 실행 중인 청크는 취소 (롤백)
+            running.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("Bulk update chunk failed", cause);
+        } catch (InterruptedException e) {
+            running.forEach(future -> future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Bulk update interrupted after " + completedChunks.get() + " chunks", e);
+        }
+        return new BulkUpdateResult(updatedRows, totalChunks, elapsedMillis(start));
+    }
+
+    private Future<Integer> submitChunk(CompletionService<Integer> completion, int age, long minId, long maxId,
+                                        int chunkSize, int chunk, AtomicInteger completedChunks, int totalChunks,
+                                        Consumer<ChunkProgress> listener) {
+        long fromId = minId + (long) chunk * chunkSize;
+        long toId = Math.min(fromId + chunkSize - 1, maxId);
+        return completion.submit(() -> {
+            long chunkStart = System.nanoTime();
+            int updatedRows = chunkTransaction.execute(status -> memberJpaRepository.bulkAgePlus(age, fromId, toId));
+            listener.accept(new ChunkProgress(fromId, toId, updatedRows, elapsedMillis(chunkStart),
+                    completedChunks.incrementAndGet(), totalChunks));
+            return updatedRows;
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    /** 청크 하나의 실행 결과 */
+    @Getter
+    public static class ChunkProgress {
+        private final long fromId;
+        private final long toId;
+        private final int updatedRows;
+        private final long elapsedMillis;
+        private final int completedChunks;
+        private final int totalChunks;
+
+        ChunkProgress(long fromId, long toId, int updatedRows, long elapsedMillis, int completedChunks, int totalChunks) {
+            this.fromId = fromId;
+            this.toId = toId;
+            this.updatedRows = updatedRows;
+            this.elapsedMillis = elapsedMillis;
+            this.completedChunks = completedChunks;
+            this.totalChunks = totalChunks;
+        }
+
+        public long getRowsPerSecond() {
+            return updatedRows * 1000L / Math.max(elapsedMillis, 1);
+        }
+    }
+
+    /** 전체 실행 결과 */
+    @Getter
+    public static class BulkUpdateResult {
+        private final long updatedRows;
+        private final int chunks;
+        private final long elapsedMillis;
+
+        BulkUpdateResult(long updatedRows, int chunks, long elapsedMillis) {
+            this.updatedRows = updatedRows;
+            this.chunks = chunks;
+            this.elapsedMillis = elapsedMillis;
+        }
+
+        public long getRowsPerSecond() {
+            return updatedRows * 1000L / Math.max(elapsedMillis, 1);
+        }
+    }
+}
@@ -1,19 +1,30 @@
 package study.datajpa.repository;
 
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Repository;
+import study.datajpa.config.BulkAuditing;
 import study.datajpa.entity.Member;
+import study.datajpa.outbox.OutboxBulkCapture;
+import study.datajpa.repository.support.DataChangePublisher;
 
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Repository
+@RequiredArgsConstructor
 public class MemberJpaRepository {
 
     @PersistenceContext
     private EntityManager em;
 
+    private final BulkAuditing bulkAuditing; //벌크 연산은 Auditing 이 동작하지 않아서 직접 수정일/수정자 입력
+    private final ObjectProvider<OutboxBulkCapture> outboxBulkCapture; //벌크 연산은 엔티티 리스너가 동작하지 않아서 직접 아웃박스 기록 (outbox.enabled)
+    private final DataChangePublisher dataChangePublisher; //벌크 연산은 Hibernate 이벤트가 없어서 직접 변경 기록 (count 캐시)
+
     public Member save(Member member) {
         em.persist(member);
         return member;
@@ -65,11 +76,48 @@ public class MemberJpaRepository {
 
     /** JPA를 사용한 벌크성 수정 쿼리 */
     public int bulkAgePlus(int age) {
-        int resultCount = em.createQuery(
-                "update Member m set m.age = m.age + 1" +
-                        "where m.age >= :age")
+        String jpql = "update Member m set m.age = m.age + 1, m.version = m.version + 1, " +
+                "m.lastModifiedDate = :now, m.lastModifiedBy = :auditor " +
+                "where m.age >= :age";
+        int resultCount = em.createQuery(jpql)
+                .setParameter("age", age)
+                .setParameter("now", bulkAuditing.now())
+                .setParameter("auditor", bulkAuditing.auditor())
+                .executeUpdate();
+        outboxBulkCapture.ifAvailable(capture -> capture.append(Member.class, "MemberJpaRepository.bulkAgePlus", jpql,
+                Map.of("age", age), resultCount));
+        dataChangePublisher.changed(Member.class);
+        return resultCount;
+    }
+
+    /**
+     * id 범위를 나눠서 실행하는 벌크성 수정 쿼리 (MemberBulkUpdateExecutor)
+     * - 한 번에 잠그는 행 수와 트랜잭션 길이를 청크 크기로 제한
+     */
+    public int bulkAgePlus(int age, long fromId, long toId) {
+        String jpql = "update Member m set m.age = m.age + 1, m.version = m.version + 1, " +
+                "m.lastModifiedDate = :now, m.lastModifiedBy = :auditor " +
+                "where m.age >= :age and m.id between :fromId and :toId";
+        int resultCount = em.createQuery(jpql)
                 .setParameter("age", age)
+                .setParameter("fromId", fromId)
+                .setParameter("toId", toId)
+                .setParameter("now", bulkAuditing.now())
+                .setParameter("auditor", bulkAuditing.auditor())
                 .executeUpdate();
+        outboxBulkCapture.ifAvailable(capture -> capture.append(Member.class, "MemberJpaRepository.bulkAgePlus", jpql,
+                Map.of("age", age, "fromId", fromId, "toId", toId), resultCount));
+        dataChangePublisher.changed(Member.class);
         return resultCount;
     }
-}
\ No newline at end of file
+
+    public Long findMinId() {
+        return em.createQuery("select min(m.id) from Member m", Long.class)
+                .getSingleResult();
+    }
+
+    public Long findMaxId() {
+        return em.createQuery("select max(m.id) from Member m", Long.class)
+                .getSingleResult();
+    }
+}
@@ -6,14 +6,21 @@ import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.*;
 import org.springframework.data.repository.query.Param;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.CachedCount;
+import study.datajpa.repository.support.CachedLookup;
+import study.datajpa.repository.support.FetchPlan;
+import study.datajpa.repository.support.FetchPlanRepository;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 공통 인터페이스
@@ -23,8 +30,11 @@ import java.util.Optional;
  *
  * - JpaRepository 인터페이스: 공통 CRUD 제공
  * - 제네릭 <엔티티타입, 식별자타입> 설정
+ *
+ * - 샤딩 시 id 로 찾는 메서드는 한 샤드에서, 나머지(username 조회 포함)는 모든 샤드에서 실행 (MemberShardRouter)
  */
-public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom {
+public interface MemberRepository extends JpaRepository<Member, Long>, MemberRepositoryCustom,
+        FetchPlanRepository<Member, Long> {
 
     /** 메서드 이름으로 쿼리 생성 */
     List<Member> findByUsernameAndAgeGreaterThan(String username, int age);
@@ -53,13 +63,29 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     @Query("select m from Member m where m.username in :names")
     List<Member> findByNames(@Param("names") Collection<String> names);
 
+    /** FetchPlan: 함께 조회할 연관관계를 호출하는 쪽에서 지정 (@Query 도 동일) */
+    @Query("select m from Member m where m.username in :names")
+    List<Member> findByNames(@Param("names") Collection<String> names, FetchPlan<Member> fetchPlan);
+
     /** 다양한 반환타입 제공 */
+    @CachedLookup //username -> id 캐시 (MemberUsernameCache), 쿼리 메서드는 기본 트랜잭션이 없으므로 readOnly 로
+    @Transactional(readOnly = true)
     List<Member> findListByUsername(String username); //컬렉션
+    @CachedLookup
+    @Transactional(readOnly = true)
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true")) //쿼리 캐시 (username 은 유일하지 않아서 natural-id 대신 사용)
     Member findMemberByUsername(String username); //단건
+    @CachedLookup
+    @Transactional(readOnly = true)
     Optional<Member> findOptionalByUsername(String name); //단건 Optional
 
-    /** 페이징과 정렬 */
+    /** 페이징과 정렬
+     * - @CachedCount: count 쿼리 결과를 캐시 (CountedPage.isTotalExact() 로 캐시 값인지 확인)
+     */
+    @CachedCount
     Page<Member> findByAge(int age, Pageable pageable); //count 쿼리 사용
+    @CachedCount
+    Page<Member> findByAge(int age, Pageable pageable, FetchPlan<Member> fetchPlan); //FetchPlan 은 count 쿼리에 적용 X
 //    Slice<Member> findByAge(int age, Pageable pageable); //count 쿼리 사용안함
 //    List<Member> findByAge(int age, Pageable pageable); //count 쿼리 사용안함
 //    List<Member> findByAge(int age, Sort sort);
@@ -67,15 +93,20 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     /** 성능 최적화를 위해서 count 쿼리를 분리할 수 있음*/
     @Query(value = "select m from Member m",
             countQuery = "select count(m.username) from Member m")
+    @CachedCount
     Page<Member> findMemberAllCountBy(Pageable pageable);
 
     @Modifying(clearAutomatically = true) //.executeUpdate(); 효과. 없으면 에러남, 옵션 :
-    @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+    @Query("update Member m set m.age = m.age + 1, m.version = m.version + 1, " + //벌크 연산도 버전 증가 (낙관적 락)
+            "m.lastModifiedDate = :#{auditingNow}, m.lastModifiedBy = :#{auditingUser} " + //벌크 연산은 Auditing X -> 직접 (BulkAuditing)
+            "where m.age >= :age")
     int bulkAgePlus(@Param("age") int age);
 
     /** @EntityGraph 사용
      * - fetch join의 간편 버전
      * - left outer join 사용
+     * - 호출마다 fetch 대상이 다르면 메서드를 나누지 말고 FetchPlan 사용
+     *   (기본 조회: findAll(FetchPlan), findById(id, FetchPlan), 쿼리 메서드: findByAge, findByNames)
      */
     //공통 메서드 오버라이드
     @Override
@@ -88,24 +119,31 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
     List<Member> findMemberEntityGraph();
 
     //메서드 이름으로 쿼리에서 특히 편리하다.
+    //쿼리 캐시 + 2차 캐시(Member, Team)로 반복 조회 시 DB 조인 X. member 테이블이 변경되면 자동 무효화
     @EntityGraph(attributePaths = {"team"})
+    @QueryHints(value = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
     List<Member> findEntityGraphByUsername(String username);
 
     /** JPA Hint
      * - 더티체킹을 위한 스냅샷을 안만들기 위해 JPA 구현체(Hibernate)에 제공하는 힌트
      * - 조회용으로만 사용, 성능 최적화
+     * - 쿼리 메서드는 기본 트랜잭션이 없으므로 readOnly 트랜잭션을 걸어서 replica 로 보낸다. (ReplicationRoutingDataSource)
      */
+    @Transactional(readOnly = true)
     @QueryHints(value = @QueryHint(name = "org.hibernate.readOnly", value = "true"))
     Member findReadOnlyByUsername(String username);
 
     //forCounting : 반환 타입으로 Page 인터페이스를 적용하면 추가로 호출하는 페이징을 위한 count 쿼리도 쿼리 힌트 적용(기본값 true)
+    @Transactional(readOnly = true)
     @QueryHints(value = { @QueryHint(name = "org.hibernate.readOnly", value = "true")}, forCounting = true)
+    @CachedCount
     Page<Member> findByUsername(String name, Pageable pageable);
 
     /** JPA Lock
      * - JPA가 제공하는 Lock을 어노테이션으로 편리하게 사용
      * - 실시간 트래픽이 많은 서비스에서는 가급적이면 Lock(OPTIMISTIC)을 거는게 좋다
      * - 돈을 맞추는게 중요하면 PESSIMISTIC_WRITE 사용
+     * - 낙관적 락: Member 의 @Version + 충돌 시 재시도 (MemberService.increaseAge, @OptimisticRetry)
      */
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     List<Member> findLockByUsername(String name);
@@ -131,6 +169,8 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
      * - 로딩 시점에 문법 확인 불가
      * - 동적 쿼리 불가
      */
+    @CachedLookup
+    @Transactional(readOnly = true)
     @Query(value = "select * from member where username = ?", nativeQuery = true)
     Member findByNativeQuery(String username);
 
@@ -143,5 +183,22 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
             "FROM member m left join team t",
             countQuery = "SELECT count(*) from member", //꼭 적어야함
             nativeQuery = true)
+    @CachedCount
     Page<MemberProjection> findByNativeProjection(Pageable pageable);
+
+    /**
+     * 비동기 조회
+     * - queryExecutor 스레드에서 각자 (readOnly) 트랜잭션으로 실행되고 바로 CompletableFuture 를 반환
+     * - 서로 관계없는 조회를 동시에 실행해서 합치기 (MemberDashboardDto.combine)
+     * - 결과 엔티티는 준영속 상태라 지연 로딩 X
+     */
+    @Async("queryExecutor")
+    @Transactional(readOnly = true)
+    CompletableFuture<Page<Member>> findAsyncByAge(int age, Pageable pageable);
+
+    @Async("queryExecutor")
+    @Transactional(readOnly = true)
+    @Query("select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) " +
+            "from Member m join m.team t")
+    CompletableFuture<List<MemberDto>> findMemberDtoAsync();
 }
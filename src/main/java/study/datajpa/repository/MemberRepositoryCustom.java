@@ -1,9 +1,45 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface MemberRepositoryCustom {
     List<Member> findMemberCustom();
-}
\ No newline at end of file
+
+    /**
+     * 대량 저장 (JDBC 배치 insert)
+     * - batchSize 마다 flush/clear 해서 영속성 컨텍스트가 계속 커지지 않도록 한다.
+     * - 주의: 호출한 트랜잭션의 영속성 컨텍스트도 같이 초기화된다.
+     */
+    int saveAllBatched(Iterable<Member> members, int batchSize);
+
+    /**
+     * 키셋(seek) 페이징: (username, id) 오름차순
+     * - after 가 null 이면 첫 페이지
+     * - offset, count 쿼리를 사용하지 않는다.
+     */
+    Window<Member> findByAgeAfter(int age, Cursor after, int size);
+
+    Window<Member> findAllAfter(Cursor after, int size);
+
+    /**
+     * 전체 회원 스트리밍 조회 (대용량 export)
+     * - 결과를 List 로 모으지 않고 fetchSize 단위로 DB 커서에서 읽는다.
+     * - clearInterval 건마다 영속성 컨텍스트를 비워서 행 수와 상관없이 메모리 사용량을 일정하게 유지
+     * - action 에 넘어온 엔티티는 곧 준영속 상태가 되므로 지연 로딩 X
+     */
+    void exportAll(int fetchSize, int clearInterval, Consumer<Member> action);
+
+    /**
+     * 회원 목록을 엔티티 없이 DTO 로 바로 조회 (JdbcTemplate + 미리 만들어 둔 RowMapper)
+     * - ResultSet 한 행 -> MemberDto 하나만 생성 (엔티티, 스냅샷, 영속성 컨텍스트 X)
+     * - 정렬 가능 속성: id, username, age, teamName
+     * - 주의: 영속성 컨텍스트를 거치지 않으므로 아직 flush 되지 않은 변경은 보이지 않는다.
+     */
+    Page<MemberDto> findMemberDtoPage(Pageable pageable);
+}
@@ -1,10 +1,31 @@
 package study.datajpa.repository;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.Session;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.util.ClassTypeInformation;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 
 import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 /**
  * 사용자 정의 구현 클래스
@@ -15,11 +36,156 @@ import java.util.List;
 @RequiredArgsConstructor
 public class MemberRepositoryCustomImpl implements MemberRepositoryCustom {
 
+    /** 컬럼 순서는 MEMBER_DTO_SQL 의 select 절과 맞춘다 (이름 대신 인덱스로 읽음) */
+    private static final RowMapper<MemberDto> MEMBER_DTO_ROW_MAPPER = (rs, rowNum) ->
+            new MemberDto(rs.getLong(1), rs.getString(2), rs.getString(3));
+
+    private static final String MEMBER_DTO_SQL =
+            "select m.member_id, m.username, t.name from member m left join team t on m.team_id = t.team_id";
+
+    private static final String MEMBER_COUNT_SQL = "select count(*) from member";
+
+    /** 정렬 속성 -> 컬럼 (화이트리스트, SQL 인젝션 방지) */
+    private static final Map<String, String> MEMBER_DTO_SORT_COLUMNS = Map.of(
+            "id", "m.member_id",
+            "username", "m.username",
+            "age", "m.age",
+            "teamName", "t.name");
+
     private final EntityManager em;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
 
     @Override
     public List<Member> findMemberCustom() {
         return em.createQuery("select m from Member m")
                 .getResultList();
     }
-}
\ No newline at end of file
+
+    @Override
+    @Transactional
+    public int saveAllBatched(Iterable<Member> members, int batchSize) {
+        Assert.isTrue(batchSize > 0, "batchSize must be greater than 0");
+
+        Session session = em.unwrap(Session.class);
+        Integer previousBatchSize = session.getJdbcBatchSize();
+        session.setJdbcBatchSize(batchSize); //flush 단위와 JDBC 배치 크기를 맞춘다
+
+        int count = 0;
+        try {
+            for (Member member : members) {
+                em.persist(member);
+                if (++count % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+            em.flush();
+            em.clear();
+        } finally {
+            session.setJdbcBatchSize(previousBatchSize);
+        }
+        return count;
+    }
+
+    @Override
+    public Window<Member> findByAgeAfter(int age, Cursor after, int size) {
+        return findWindow(age, after, size);
+    }
+
+    @Override
+    public Window<Member> findAllAfter(Cursor after, int size) {
+        return findWindow(null, after, size);
+    }
+
+    private Window<Member> findWindow(Integer age, Cursor after, int size) {
+        Assert.isTrue(size > 0, "size must be greater than 0");
+
+        List<String> conditions = new ArrayList<>();
+        if (age != null) {
+            conditions.add("m.age = :age");
+        }
+        if (after != null && after.getUsername() == null) {
+            //username 이 null 인 회원이 먼저 (nulls first)
+            conditions.add("((m.username is null and m.id > :id) or m.username is not null)");
+        } else if (after != null) {
+            conditions.add("(m.username > :username or (m.username = :username and m.id > :id))");
+        }
+        String jpql = "select m from Member m" +
+                (conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions)) +
+                " order by m.username asc nulls first, m.id asc";
+
+        TypedQuery<Member> query = em.createQuery(jpql, Member.class)
+                .setMaxResults(size + 1); //한 건 더 읽어서 다음 페이지 여부 확인
+        if (age != null) {
+            query.setParameter("age", age);
+        }
+        if (after != null) {
+            if (after.getUsername() != null) {
+                query.setParameter("username", after.getUsername());
+            }
+            query.setParameter("id", after.getId());
+        }
+
+        List<Member> result = query.getResultList();
+        if (result.size() <= size) {
+            return new Window<>(result, null);
+        }
+        List<Member> content = result.subList(0, size);
+        return new Window<>(content, Cursor.of(content.get(size - 1)).encode());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAll(int fetchSize, int clearInterval, Consumer<Member> action) {
+        Assert.isTrue(fetchSize > 0, "fetchSize must be greater than 0");
+        Assert.isTrue(clearInterval > 0, "clearInterval must be greater than 0");
+
+        try (Stream<Member> stream = em.createQuery("select m from Member m order by m.id", Member.class)
+                .setHint(QueryHints.FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.READ_ONLY, true) //스냅샷 X
+                .getResultStream()) { //Hibernate ScrollableResults 기반
+            int count = 0;
+            Iterator<Member> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                action.accept(iterator.next());
+                if (++count % clearInterval == 0) {
+                    em.clear();
+                }
+            }
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<MemberDto> findMemberDtoPage(Pageable pageable) {
+        StringBuilder sql = new StringBuilder(MEMBER_DTO_SQL).append(orderBy(pageable.getSort()));
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        if (pageable.isPaged()) {
+            sql.append(" limit :limit offset :offset");
+            params.addValue("limit", pageable.getPageSize())
+                    .addValue("offset", pageable.getOffset());
+        }
+
+        List<MemberDto> content = jdbcTemplate.query(sql.toString(), params, MEMBER_DTO_ROW_MAPPER);
+        //마지막 페이지처럼 content 로 전체 개수를 알 수 있으면 count 쿼리 생략
+        return PageableExecutionUtils.getPage(content, pageable,
+                () -> jdbcTemplate.getJdbcTemplate().queryForObject(MEMBER_COUNT_SQL, Long.class));
+    }
+
+    private String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        List<String> orders = new ArrayList<>();
+        for (Sort.Order order : sort) {
+            String column = MEMBER_DTO_SORT_COLUMNS.get(order.getProperty());
+            if (column == null) {
+                //스프링 데이터 쿼리 메서드와 같은 예외 (요청 값이 잘못됨 -> 400, ApiExceptionHandler)
+                throw new PropertyReferenceException(order.getProperty(), ClassTypeInformation.from(MemberDto.class),
+                        Collections.emptyList());
+            }
+            orders.add(column + (order.isAscending() ? " asc" : " desc"));
+        }
+        return " order by " + String.join(", ", orders);
+    }
+}
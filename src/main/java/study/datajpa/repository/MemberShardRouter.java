@@ -0,0 +1,448 @@
+package study.datajpa.repository;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.util.ClassTypeInformation;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.config.Shards;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.OuterRepositoryProxyPostProcessor;
+import study.datajpa.repository.support.ShardContext;
+
+import javax.annotation.PreDestroy;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 회원/팀 리포지토리(MemberRepository, TeamRepository) 호출을 샤드로 보낸다. (샤딩 설정 시, ShardingDataSourceConfig)
+ * - id 로만 샤드를 정한다. (id % 샤드 수 = 샤드)
+ *   새 팀, 팀 없는 새 회원은 샤드를 돌아가며 배정하고, 그 샤드에서 저장할 때 샤드 번호가 id 에 들어간다. (AssignableSequenceGenerator)
+ *   username 처럼 바뀔 수 있는 값으로 정하면 변경 후 다른 샤드를 찾게 되므로 사용 X
+ * - 팀이 있는 회원은 팀과 같은 샤드 -> member.team_id 외래 키, 팀 조인(fetch join, DTO 조회)이 샤드 안에서 끝난다.
+ * - 한 샤드: findById 등 id 로 찾는 메서드, save/delete
+ * - 모든 샤드 (scatter-gather): 나머지 (username 조회 포함). 샤드마다 트랜잭션을 따로 열고 결과를 합친다.
+ *   Page: 샤드마다 앞에서부터 offset + size 개를 조회해서 정렬 순서대로 병합, 전체 개수는 합
+ *   List: 이어 붙임 (Sort 파라미터가 있으면 정렬), 개수: 합, 단건/Optional: 먼저 찾은 것
+ *   Window(키셋 페이징): 샤드마다 같은 커서 다음 size 개 -> (username, id) 순서로 병합해서 size 개
+ * - 커스텀 구현 메서드(MemberRepositoryCustom)도 같은 규칙: saveAllBatched 는 샤드별로 나눠서, 나머지는 모든 샤드
+ *
+ * ※ 주의
+ * - 샤드를 고르고 나서 트랜잭션을 시작하므로 이미 시작된 트랜잭션 안에서는 호출 X (ShardContext 로 샤드를 먼저 지정)
+ * - 여러 샤드에 걸친 저장/삭제는 샤드마다 따로 커밋된다. (원자성 X)
+ * - 회원의 팀을 다른 샤드의 팀으로 바꿀 수 없다. (저장 시 예외)
+ * - 병합 정렬은 결과 객체의 속성으로 한다. (지연 로딩 연관관계 속성, 결과에 없는 속성으로 정렬 X)
+ * - 깊은 페이지일수록 샤드마다 많이 읽는다. (offset + size 개씩, 깊은 페이지는 키셋 페이징 사용)
+ * - exportAll 은 샤드 순서대로 내보낸다. (전체 id 순서 X)
+ * - 순수 JPA 리포지토리는 기본 샤드에서 실행
+ */
+@Component
+@ConditionalOnProperty(name = "datasource.sharding.shards[0].url")
+public class MemberShardRouter implements OuterRepositoryProxyPostProcessor {
+
+    private static final Set<String> ID_METHODS =
+            Set.of("findById", "existsById", "deleteById", "getById", "getReferenceById", "getOne");
+    private static final Set<String> SAVE_METHODS =
+            Set.of("save", "saveAndFlush", "saveAll", "saveAllAndFlush", "saveAllBatched");
+    private static final Set<String> BATCH_METHODS = Set.of("saveAll", "saveAllAndFlush", "saveAllBatched",
+            "findAllById", "deleteAll", "deleteAllInBatch", "deleteAllById", "deleteAllByIdInBatch");
+    /** MemberRepositoryCustom 키셋 페이징 순서 */
+    private static final Sort KEYSET_SORT = Sort.by(Sort.Order.asc("username").nullsFirst(), Sort.Order.asc("id"));
+
+    private final Shards shards;
+    private final AtomicInteger placement = new AtomicInteger();
+    private final ExecutorService executor;
+
+    public MemberShardRouter(Shards shards) {
+        this.shards = shards;
+        this.executor = Executors.newFixedThreadPool(shards.count());
+    }
+
+    @Override
+    public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+        if (!Member.class.equals(repositoryInformation.getDomainType())
+                && !Team.class.equals(repositoryInformation.getDomainType())) {
+            return;
+        }
+        factory.addAdvice((MethodInterceptor) invocation ->
+                route((ProxyMethodInvocation) invocation, repositoryInformation));
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+
+    private Object route(ProxyMethodInvocation invocation, RepositoryInformation information) throws Throwable {
+        Method method = invocation.getMethod();
+        if (ShardContext.current() != null //이미 지정됨 (샤드별 실행 중, 호출하는 쪽에서 지정)
+                || method.getDeclaringClass() == Object.class) {
+            return invocation.proceed();
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Shard must be selected before the transaction starts, " +
+                    "use ShardContext for " + method);
+        }
+
+        Object[] arguments = invocation.getArguments();
+        if (BATCH_METHODS.contains(method.getName()) && arguments.length > 0 && arguments[0] instanceof Iterable) {
+            return partition(invocation, (Iterable<?>) arguments[0]);
+        }
+        Integer shard = null;
+        if (ID_METHODS.contains(method.getName()) && arguments.length > 0 && arguments[0] != null) {
+            shard = shards.shardOf(arguments[0]); //findById(id, FetchPlan) 포함
+        } else if (arguments.length == 1 && information.getDomainType().isInstance(arguments[0])) {
+            shard = shardOf(method, arguments[0]);
+        }
+        if (shard != null) {
+            return proceed(shard, invocation);
+        }
+        return scatter(invocation, information);
+    }
+
+    /**
+     * 저장: 새 엔티티면 샤드를 돌아가며 정한다. (id 는 그 샤드에서 저장할 때 할당)
+     * - 팀이 있는 회원은 팀의 샤드
+     */
+    private int shardOf(Method method, Object entity) {
+        Long id = entity instanceof Member ? ((Member) entity).getId() : ((Team) entity).getId();
+        Integer teamShard = entity instanceof Member ? teamShardOf((Member) entity) : null;
+        if (id != null) {
+            int shard = shards.shardOf(id);
+            if (teamShard != null && teamShard != shard) {
+                throw new IllegalArgumentException("Member " + id + " on shard " + shard +
+                        " can not belong to a team on shard " + teamShard);
+            }
+            return shard;
+        }
+        if (teamShard != null) {
+            return teamShard;
+        }
+        if (SAVE_METHODS.contains(method.getName())) {
+            return Math.floorMod(placement.getAndIncrement(), shards.count());
+        }
+        return Shards.DEFAULT_SHARD;
+    }
+
+    private Integer teamShardOf(Member member) {
+        Team team = member.getTeam();
+        return team != null && team.getId() != null ? shards.shardOf(team.getId()) : null; //프록시 초기화 X
+    }
+
+    /**
+     * saveAll, saveAllBatched, findAllById, deleteAll(Iterable) 등: 샤드별로 나눠서 호출, 결과는 입력 순서대로
+     * - 첫 번째 파라미터만 나누고 나머지 파라미터(batchSize 등)는 그대로, 개수(int)를 반환하면 합
+     */
+    private Object partition(ProxyMethodInvocation invocation, Iterable<?> elements) throws Throwable {
+        Method method = invocation.getMethod();
+        Map<Integer, List<Object>> groups = new TreeMap<>();
+        Map<Integer, List<Integer>> positions = new TreeMap<>();
+        int position = 0;
+        for (Object element : elements) {
+            int shard = element instanceof Member || element instanceof Team
+                    ? shardOf(method, element) : shards.shardOf(element);
+            groups.computeIfAbsent(shard, key -> new ArrayList<>()).add(element);
+            positions.computeIfAbsent(shard, key -> new ArrayList<>()).add(position++);
+        }
+
+        Object[] results = new Object[position];
+        List<Object> found = new ArrayList<>();
+        int count = 0;
+        for (Map.Entry<Integer, List<Object>> group : groups.entrySet()) {
+            Object[] groupArguments = invocation.getArguments().clone();
+            groupArguments[0] = group.getValue();
+            Object result = proceed(group.getKey(), invocation.invocableClone(groupArguments));
+            if (result instanceof Integer) {
+                count += (Integer) result;
+                continue;
+            }
+            if (!(result instanceof Iterable)) {
+                continue;
+            }
+            List<Integer> groupPositions = positions.get(group.getKey());
+            int i = 0;
+            for (Object element : (Iterable<?>) result) {
+                if (method.getName().startsWith("save")) {
+                    results[groupPositions.get(i++)] = element;
+                } else {
+                    found.add(element); //findAllById: 없는 id 는 빠지므로 찾은 것만
+                }
+            }
+        }
+        if (method.getReturnType() == void.class) {
+            return null;
+        }
+        if (method.getReturnType() == int.class) {
+            return count;
+        }
+        return method.getName().startsWith("save") ? Arrays.asList(results) : found;
+    }
+
+    private Object scatter(ProxyMethodInvocation invocation, RepositoryInformation information) throws Throwable {
+        Method method = invocation.getMethod();
+        Object[] arguments = invocation.getArguments();
+        Class<?>[] parameterTypes = method.getParameterTypes();
+
+        Pageable pageable = Pageable.unpaged();
+        Sort sort = Sort.unsorted();
+        Object[] shardArguments = arguments.clone();
+        for (int i = 0; i < arguments.length; i++) {
+            if (Pageable.class.isAssignableFrom(parameterTypes[i]) && arguments[i] != null
+                    && ((Pageable) arguments[i]).isPaged()) {
+                pageable = (Pageable) arguments[i];
+                sort = pageable.getSort();
+                if (hasId(information.getReturnedDomainClass(method)) && sort.getOrderFor("id") == null) {
+                    sort = sort.and(Sort.by("id")); //같은 값끼리 순서가 샤드마다/페이지마다 바뀌지 않도록
+                }
+                //각 샤드에서 offset + size 개까지 가져와야 병합 후 offset 을 건너뛸 수 있다
+                shardArguments[i] = PageRequest.of(0, Math.toIntExact(pageable.getOffset() + pageable.getPageSize()), sort);
+            } else if (Sort.class.isAssignableFrom(parameterTypes[i]) && arguments[i] != null) {
+                sort = (Sort) arguments[i];
+            }
+        }
+        checkSortable(information.getReturnedDomainClass(method), sort);
+
+        List<Object> results = new ArrayList<>(shards.count());
+        if (information.isQueryMethod(method)) {
+            //쿼리 메서드는 샤드마다 다른 스레드에서 동시에 실행
+            List<Future<Object>> futures = new ArrayList<>(shards.count());
+            for (int shard = 0; shard < shards.count(); shard++) {
+                int target = shard;
+                MethodInvocation clone = invocation.invocableClone(shardArguments);
+                futures.add(executor.submit(() -> proceedChecked(target, clone)));
+            }
+            for (Future<Object> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw e.getCause();
+                }
+            }
+        } else {
+            //CRUD 메서드(findAll, count 등)는 호출 스레드에 묶인 메타데이터(CrudMethodMetadata)를 쓰므로 차례로 실행
+            for (int shard = 0; shard < shards.count(); shard++) {
+                results.add(proceed(shard, invocation.invocableClone(shardArguments)));
+            }
+        }
+
+        if (Window.class.equals(method.getReturnType())) {
+            return mergeWindows(results, (Integer) arguments[arguments.length - 1]);
+        }
+        if (CompletableFuture.class.isAssignableFrom(method.getReturnType())) { //@Async
+            List<Object> values = results.stream()
+                    .map(result -> result != null ? ((CompletableFuture<?>) result).join() : null)
+                    .collect(Collectors.toList());
+            return CompletableFuture.completedFuture(merge(method, values, pageable, sort));
+        }
+        return merge(method, results, pageable, sort);
+    }
+
+    private Object merge(Method method, List<Object> results, Pageable pageable, Sort sort) {
+        List<Object> values = results.stream().filter(result -> result != null).collect(Collectors.toList());
+        if (values.isEmpty()) {
+            return Optional.class.equals(method.getReturnType()) ? Optional.empty() : null;
+        }
+        Object first = values.get(0);
+        if (first instanceof Page) {
+            long total = values.stream().mapToLong(page -> ((Page<?>) page).getTotalElements()).sum();
+            return new PageImpl<>(mergeSorted(contents(values), comparator(sort),
+                    pageable.getOffset(), pageable.getPageSize()), pageable, total);
+        }
+        if (first instanceof Slice) {
+            List<Object> content = mergeSorted(contents(values), comparator(sort),
+                    pageable.getOffset(), pageable.getPageSize() + 1);
+            boolean hasNext = content.size() > pageable.getPageSize();
+            return new SliceImpl<>(hasNext ? content.subList(0, pageable.getPageSize()) : content, pageable, hasNext);
+        }
+        if (first instanceof Collection) {
+            List<Object> merged = new ArrayList<>();
+            values.forEach(value -> merged.addAll((Collection<?>) value));
+            if (sort.isSorted()) {
+                merged.sort(comparator(sort));
+            }
+            return Set.class.isAssignableFrom(method.getReturnType()) ? new LinkedHashSet<>(merged) : merged;
+        }
+        if (first instanceof Optional) {
+            return values.stream().map(Optional.class::cast).filter(Optional::isPresent).findFirst().orElse(Optional.empty());
+        }
+        if (first instanceof Long || first instanceof Integer) {
+            long sum = values.stream().mapToLong(value -> ((Number) value).longValue()).sum();
+            return first instanceof Integer ? (Object) Math.toIntExact(sum) : (Object) sum;
+        }
+        if (first instanceof Boolean) {
+            return values.stream().anyMatch(Boolean.TRUE::equals);
+        }
+        if (first instanceof Stream) {
+            values.forEach(value -> ((Stream<?>) value).close());
+            throw new UnsupportedOperationException("Stream results can not be merged across shards: " + method);
+        }
+        return first; //단건
+    }
+
+    /** 모든 샤드를 합쳐서 size 개보다 많이 남았으면 다음 커서 (한 샤드라도 다음이 있으면 합친 결과도 size 개 이상) */
+    private static Window<Object> mergeWindows(List<Object> windows, int size) {
+        List<List<?>> contents = new ArrayList<>(windows.size());
+        boolean more = false;
+        for (Object window : windows) {
+            contents.add(((Window<?>) window).getContent());
+            more |= ((Window<?>) window).hasNext();
+        }
+        List<Object> merged = mergeSorted(contents, comparator(KEYSET_SORT), 0, size + 1);
+        List<Object> content = merged.size() > size ? merged.subList(0, size) : merged;
+        boolean hasNext = (merged.size() > size || more) && !content.isEmpty();
+        return new Window<>(content, hasNext ? Cursor.of((Member) content.get(content.size() - 1)).encode() : null);
+    }
+
+    /** 병합은 결과 객체의 속성으로 정렬하므로 결과에 없는 속성(예: MemberDto 의 age)은 샤드에 보내기 전에 거절 */
+    private static void checkSortable(Class<?> type, Sort sort) {
+        for (Sort.Order order : sort) {
+            String property = order.getProperty().split("\\.")[0];
+            if (BeanUtils.getPropertyDescriptor(type, property) == null) {
+                throw new PropertyReferenceException(property, ClassTypeInformation.from(type), Collections.emptyList());
+            }
+        }
+    }
+
+    private static boolean hasId(Class<?> type) {
+        return Member.class.isAssignableFrom(type) || Team.class.isAssignableFrom(type) || MemberDto.class.equals(type);
+    }
+
+    private static List<List<?>> contents(List<Object> slices) {
+        return slices.stream().map(slice -> ((Slice<?>) slice).getContent()).collect(Collectors.toList());
+    }
+
+    /** 샤드별로 정렬된 결과를 k-way 병합, 앞의 offset 개는 건너뛰고 limit 개까지 */
+    private static List<Object> mergeSorted(List<List<?>> sortedLists, Comparator<Object> comparator,
+                                            long offset, int limit) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Math.max(sortedLists.size(), 1),
+                (a, b) -> comparator.compare(a.value, b.value));
+        for (List<?> list : sortedLists) {
+            Head head = new Head(list.iterator());
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        List<Object> merged = new ArrayList<>(limit);
+        long skipped = 0;
+        while (!heads.isEmpty() && merged.size() < limit) {
+            Head head = heads.poll();
+            if (skipped < offset) {
+                skipped++;
+            } else {
+                merged.add(head.value);
+            }
+            if (head.advance()) {
+                heads.add(head);
+            }
+        }
+        return merged;
+    }
+
+    /** DB 와 같은 순서 (null 은 H2 기본과 같이 가장 작은 값으로, NULLS FIRST/LAST 지정 시 따름) */
+    private static Comparator<Object> comparator(Sort sort) {
+        Comparator<Object> comparator = (a, b) -> 0;
+        for (Sort.Order order : sort) {
+            comparator = comparator.thenComparing((a, b) -> compare(property(a, order), property(b, order), order));
+        }
+        return comparator;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object x, Object y, Sort.Order order) {
+        int result;
+        if (x == null || y == null) {
+            if (x == y) {
+                return 0;
+            }
+            switch (order.getNullHandling()) {
+                case NULLS_FIRST:
+                    return x == null ? -1 : 1;
+                case NULLS_LAST:
+                    return x == null ? 1 : -1;
+                default:
+                    result = x == null ? -1 : 1;
+            }
+        } else if (order.isIgnoreCase() && x instanceof String) {
+            result = ((String) x).compareToIgnoreCase((String) y);
+        } else {
+            result = ((Comparable<Object>) x).compareTo(y);
+        }
+        return order.isAscending() ? result : -result;
+    }
+
+    private static Object property(Object value, Sort.Order order) {
+        return PropertyAccessorFactory.forBeanPropertyAccess(value).getPropertyValue(order.getProperty());
+    }
+
+    private static Object proceed(int shard, MethodInvocation invocation) throws Throwable {
+        try (ShardContext.Scope ignored = ShardContext.open(shard)) {
+            return invocation.proceed();
+        }
+    }
+
+    private static Object proceedChecked(int shard, MethodInvocation invocation) throws Exception {
+        try {
+            return proceed(shard, invocation);
+        } catch (Exception | Error e) {
+            throw e;
+        } catch (Throwable t) {
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+
+    private static class Head {
+        private final Iterator<?> iterator;
+        private Object value;
+
+        Head(Iterator<?> iterator) {
+            this.iterator = iterator;
+        }
+
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+            value = iterator.next();
+            return true;
+        }
+    }
+}
@@ -0,0 +1,284 @@
+package study.datajpa.repository;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.Session;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostCommitDeleteEventListener;
+import org.hibernate.event.spi.PostCommitInsertEventListener;
+import org.hibernate.event.spi.PostCommitUpdateEventListener;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.IncorrectResultSizeDataAccessException;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.config.Shards;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.support.CachedLookup;
+import study.datajpa.repository.support.ShardContext;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * username -> 회원 id 목록 캐시 (@CachedLookup 메서드: findMemberByUsername, findListByUsername ...)
+ * - Caffeine: 크기 제한 + W-TinyLFU (자주 조회되는 username 이 한 번 조회된 username 에 밀려나지 않는다)
+ * - 없는 username 도 빈 목록으로 캐시 (negative-ttl 동안, 반복되는 miss 조회 차단)
+ * - 엔티티는 id 로 로딩하므로 2차 캐시(Member)와 같이 쓰면 DB 조회 X
+ *
+ * 무효화
+ * - 회원 등록/삭제/username 변경: Hibernate 커밋 후 이벤트 (변경 감지 포함)
+ * - 벌크 연산(@Modifying, deleteAllInBatch 등)은 이벤트가 없으므로 전체 무효화
+ * - 무효화할 때마다 generation 증가: 조회 도중에 무효화되면 그 결과는 저장하지 않는다 (변경 전 결과가 다시 캐시되는 것 방지)
+ * - 캐시에서 찾은 회원의 username 이 다르거나 없어졌으면 (JDBC 로 직접 변경/삭제) 무효화하고 DB 조회
+ *
+ * 읽기 전용 트랜잭션에서만 사용 (쓰기 트랜잭션은 아직 커밋 안 된 변경을 볼 수 있어야 하므로 DB 조회)
+ * 샤딩 시 username 조회는 샤드마다 실행되므로 샤드별로 캐시 (키: 샤드 + username)
+ * 메트릭: cache.gets{cache=member.username, result=hit|miss}, cache.size, cache.evictions
+ */
+@Component
+public class MemberUsernameCache implements RepositoryProxyPostProcessor,
+        PostCommitInsertEventListener, PostCommitUpdateEventListener, PostCommitDeleteEventListener {
+
+    private static final String USERNAME = "username";
+
+    private final Cache<String, List<Long>> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final EntityManager em;
+    private final ObjectProvider<Shards> shards;
+
+    public MemberUsernameCache(EntityManager em,
+                               EntityManagerFactory entityManagerFactory,
+                               MeterRegistry meterRegistry,
+                               ObjectProvider<Shards> shards,
+                               @Value("${member.username-cache.maximum-size:10000}") long maximumSize,
+                               @Value("${member.username-cache.ttl:10m}") Duration ttl,
+                               @Value("${member.username-cache.negative-ttl:30s}") Duration negativeTtl) {
+        this.em = em;
+        this.shards = shards;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new HitOrMissExpiry(ttl, negativeTtl))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "member.username");
+
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, this);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, this);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, this);
+    }
+
+    public void invalidate(String username) {
+        if (username == null) {
+            return;
+        }
+        generation.incrementAndGet();
+        cache.invalidate(username);
+        Shards shards = this.shards.getIfAvailable();
+        if (shards != null) {
+            for (int shard = 0; shard < shards.count(); shard++) {
+                cache.invalidate(key(shard, username));
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    /** Member 리포지토리에만 적용 */
+    @Override
+    public void postProcess(ProxyFactory factory, RepositoryInformation repositoryInformation) {
+        if (Member.class.equals(repositoryInformation.getDomainType())) {
+            factory.addAdvice(new LookupInterceptor());
+        }
+    }
+
+    private class LookupInterceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            Method method = invocation.getMethod();
+            if (AnnotatedElementUtils.hasAnnotation(method, CachedLookup.class)) {
+                return lookup(invocation);
+            }
+            if (isBulk(method)) {
+                try {
+                    return invocation.proceed();
+                } finally {
+                    invalidateAll();
+                }
+            }
+            return invocation.proceed();
+        }
+
+        private Object lookup(MethodInvocation invocation) throws Throwable {
+            Object username = invocation.getArguments()[0];
+            if (!(username instanceof String) || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+                return invocation.proceed();
+            }
+
+            String key = key(ShardContext.current(), (String) username);
+            List<Long> ids = cache.getIfPresent(key);
+            if (ids != null) {
+                List<Member> members = em.unwrap(Session.class).byMultipleIds(Member.class).multiLoad(ids);
+                if (members.stream().allMatch(member -> member != null && username.equals(member.getUsername()))) {
+                    return adapt(invocation.getMethod(), members);
+                }
+                cache.asMap().remove(key, ids); //그 사이 삭제되거나 username 이 바뀜 (벌크/JDBC)
+            }
+
+            long lookupGeneration = generation.get(); //조회 전에 읽는다
+            Object result = invocation.proceed();
+            List<Long> found = idsOf(result);
+            cache.put(key, found);
+            if (generation.get() != lookupGeneration) {
+                cache.asMap().remove(key, found); //조회하는 동안 무효화됨
+            }
+            return result;
+        }
+    }
+
+    private static String key(Integer shard, String username) {
+        return shard == null ? username : shard + ":" + username;
+    }
+
+    private static boolean isBulk(Method method) {
+        return method.getName().endsWith("InBatch") || AnnotatedElementUtils.hasAnnotation(method, Modifying.class);
+    }
+
+    private static List<Long> idsOf(Object result) {
+        Collection<?> members;
+        if (result instanceof Optional) {
+            members = ((Optional<?>) result).map(List::of).orElse(List.of());
+        } else if (result instanceof Collection) {
+            members = (Collection<?>) result;
+        } else {
+            members = result == null ? List.of() : List.of(result);
+        }
+        List<Long> ids = new ArrayList<>(members.size());
+        for (Object member : members) {
+            ids.add(((Member) member).getId());
+        }
+        return ids;
+    }
+
+    /** 쿼리 메서드와 같은 결과 (단건인데 여러 개면 같은 예외) */
+    private static Object adapt(Method method, List<Member> members) {
+        Class<?> returnType = method.getReturnType();
+        if (Collection.class.isAssignableFrom(returnType)) {
+            return members;
+        }
+        if (members.size() > 1) {
+            throw new IncorrectResultSizeDataAccessException(1, members.size());
+        }
+        Member member = members.isEmpty() ? null : members.get(0);
+        return Optional.class.equals(returnType) ? Optional.ofNullable(member) : member;
+    }
+
+    // ===== Hibernate 커밋 후 이벤트 =====
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        if (event.getEntity() instanceof Member) {
+            invalidate(((Member) event.getEntity()).getUsername());
+        }
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        if (!(event.getEntity() instanceof Member)) {
+            return;
+        }
+        if (event.getOldState() == null) { //이전 username 을 모르면 (detached 엔티티 update 등)
+            invalidateAll();
+            return;
+        }
+        int index = event.getPersister().getEntityMetamodel().getPropertyIndex(USERNAME);
+        Object oldUsername = event.getOldState()[index];
+        Object newUsername = event.getState()[index];
+        if (!Objects.equals(oldUsername, newUsername)) {
+            invalidate((String) oldUsername);
+            invalidate((String) newUsername);
+        }
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        if (event.getEntity() instanceof Member) {
+            int index = event.getPersister().getEntityMetamodel().getPropertyIndex(USERNAME);
+            invalidate((String) event.getDeletedState()[index]);
+        }
+    }
+
+    @Override
+    public void onPostInsertCommitFailed(PostInsertEvent event) {
+    }
+
+    @Override
+    public void onPostUpdateCommitFailed(PostUpdateEvent event) {
+    }
+
+    @Override
+    public void onPostDeleteCommitFailed(PostDeleteEvent event) {
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return Member.class.equals(persister.getMappedClass());
+    }
+
+    /** 찾은 결과는 ttl, 없는 결과(빈 목록)는 negativeTtl */
+    private static class HitOrMissExpiry implements Expiry<String, List<Long>> {
+
+        private final long ttlNanos;
+        private final long negativeTtlNanos;
+
+        HitOrMissExpiry(Duration ttl, Duration negativeTtl) {
+            this.ttlNanos = ttl.toNanos();
+            this.negativeTtlNanos = negativeTtl.toNanos();
+        }
+
+        @Override
+        public long expireAfterCreate(String key, List<Long> ids, long currentTime) {
+            return ids.isEmpty() ? negativeTtlNanos : ttlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, List<Long> ids, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, ids, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, List<Long> ids, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package study.datajpa.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.entity.Team;
 
+import java.util.concurrent.CompletableFuture;
+
 /**
  * 공통 인터페이스
  * - JavaConfig 설정: 스프링 부트 사용 시 생략 가능(@SpringBootApplication 위치를 지정)
@@ -13,4 +18,10 @@ import study.datajpa.entity.Team;
  * - 제네릭 <엔티티타입, 식별자타입> 설정
  */
 public interface TeamRepository extends JpaRepository<Team, Long> {
+
+    /** 비동기 조회 (queryExecutor 스레드에서 각자 트랜잭션) */
+    @Async("queryExecutor")
+    @Transactional(readOnly = true)
+    @Query("select count(t) from Team t")
+    CompletableFuture<Long> countAsync();
 }
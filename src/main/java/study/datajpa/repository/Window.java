@@ -0,0 +1,36 @@
+package study.datajpa.repository;
+
+import lombok.Getter;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 키셋 페이징 결과
+ * - Page 와 달리 전체 개수(count 쿼리)가 없다.
+ * - nextCursor 가 null 이면 마지막 페이지
+ */
+@Getter
+public class Window<T> {
+
+    private final List<T> content;
+    private final String nextCursor;
+
+    public Window(List<T> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public boolean hasNext() {
+        return nextCursor != null;
+    }
+
+    /** Page.map() 처럼 커서를 유지하면서 엔티티를 DTO로 변환 */
+    public <U> Window<U> map(Function<? super T, ? extends U> converter) {
+        List<U> converted = content.stream()
+                .map(converter)
+                .collect(Collectors.toList());
+        return new Window<>(converted, nextCursor);
+    }
+}
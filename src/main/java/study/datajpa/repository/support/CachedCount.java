@@ -0,0 +1,23 @@
+package study.datajpa.repository.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Page 반환 쿼리 메서드의 count 쿼리 결과를 캐시
+ * - 조건(Pageable 을 제외한 파라미터)별로 전체 개수를 ttlSeconds 동안 재사용하고, 그동안은 count 쿼리 대신 Slice 조회만 한다.
+ * - 같은 리포지토리로 save, delete, @Modifying 메서드를 호출하면 캐시를 비운다.
+ * - 리포지토리를 거치지 않은 같은 엔티티 변경(변경 감지, JPQL/JDBC 벌크 연산)은 트랜잭션이 끝난 후 비운다. (DataChangedEvent)
+ * - 캐시된 개수로 만든 페이지는 CountedPage#isTotalExact() 가 false
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CachedCount {
+
+    /** 전체 개수 캐시 유지 시간(초) */
+    long ttlSeconds() default 60;
+}
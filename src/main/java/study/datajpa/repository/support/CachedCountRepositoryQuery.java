@@ -0,0 +1,91 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.query.Parameters;
+import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.data.repository.query.RepositoryQuery;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @CachedCount 쿼리 메서드 실행
+ * - 캐시 miss: 원래 Page 쿼리(내용 + count) 실행 후 전체 개수 저장
+ * - 캐시 hit: Slice 쿼리(size + 1 건 조회, count X)만 실행하고 캐시된 전체 개수로 Page 를 만든다.
+ */
+class CachedCountRepositoryQuery implements RepositoryQuery {
+
+    private final Method method;
+    private final RepositoryQuery pageQuery;
+    private final RepositoryQuery sliceQuery;
+    private final CountCache countCache;
+    private final Duration ttl;
+
+    CachedCountRepositoryQuery(Method method, RepositoryQuery pageQuery, RepositoryQuery sliceQuery,
+                               CountCache countCache, Duration ttl) {
+        this.method = method;
+        this.pageQuery = pageQuery;
+        this.sliceQuery = sliceQuery;
+        this.countCache = countCache;
+        this.ttl = ttl;
+    }
+
+    @Override
+    public Object execute(Object[] parameters) {
+        Parameters<?, ?> methodParameters = getQueryMethod().getParameters();
+        Pageable pageable = (Pageable) parameters[methodParameters.getPageableIndex()];
+        if (pageable == null || pageable.isUnpaged()) {
+            return pageQuery.execute(parameters); //페이징이 없으면 count 쿼리도 없다
+        }
+
+        List<Object> key = countKey(methodParameters, parameters);
+        long generation = countCache.generation();
+        Long cachedTotal = countCache.get(key);
+        if (cachedTotal != null) {
+            Slice<?> slice = (Slice<?>) sliceQuery.execute(parameters);
+            long seen = pageable.getOffset() + slice.getNumberOfElements();
+            if (!slice.hasNext() && (slice.hasContent() || pageable.getOffset() == 0)) {
+                //마지막 페이지면 전체 개수를 정확히 알 수 있다
+                countCache.put(key, seen, ttl, generation);
+                return page(slice.getContent(), pageable, seen, true);
+            }
+            if (seen < cachedTotal) {
+                return page(slice.getContent(), pageable, cachedTotal, false);
+            }
+            //캐시된 개수가 실제보다 작다 -> 다시 센다
+        }
+
+        Page<?> page = (Page<?>) pageQuery.execute(parameters);
+        countCache.put(key, page.getTotalElements(), ttl, generation);
+        return page(page.getContent(), pageable, page.getTotalElements(), true);
+    }
+
+    @Override
+    public QueryMethod getQueryMethod() {
+        return pageQuery.getQueryMethod();
+    }
+
+    /**
+     * 쿼리 메서드 + 샤드 + 조건 파라미터 (Pageable, Sort, FetchPlan 같은 특수 파라미터는 개수에 영향 X)
+     * - 샤딩 시 같은 조건이라도 샤드마다 개수가 다르다 (ShardContext)
+     */
+    private List<Object> countKey(Parameters<?, ?> methodParameters, Object[] parameters) {
+        List<Object> key = new ArrayList<>(parameters.length + 2);
+        key.add(method);
+        key.add(ShardContext.current());
+        for (int i = 0; i < parameters.length; i++) {
+            if (!methodParameters.getParameter(i).isSpecialParameter()) {
+                key.add(parameters[i]);
+            }
+        }
+        return key;
+    }
+
+    private static <T> CountedPage<T> page(List<T> content, Pageable pageable, long total, boolean exact) {
+        return new CountedPage<>(content, pageable, total, exact);
+    }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.repository.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 첫 번째 파라미터(예: username)로 조회한 결과 엔티티의 id 를 캐시 (MemberUsernameCache)
+ * - 반환 타입: 엔티티, Optional<엔티티>, List<엔티티>
+ * - 캐시 hit 이면 id 로 엔티티를 로딩 (2차 캐시, 영속성 컨텍스트 사용)
+ * - 읽기 전용 트랜잭션에서만 캐시를 사용하므로 @Transactional(readOnly = true) 와 같이 선언
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CachedLookup {
+}
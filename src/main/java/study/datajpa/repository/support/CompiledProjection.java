@@ -0,0 +1,40 @@
+package study.datajpa.repository.support;
+
+import java.util.Arrays;
+
+/**
+ * CompiledProjectionFactory 가 만드는 프로젝션 구현 클래스의 부모
+ * - 생성된 클래스의 getter 는 value(슬롯 번호) 를 바로 호출한다. (리플렉션, Map 조회 X)
+ * - 생성된 클래스가 다른 클래스 로더에 올라가므로 public
+ */
+public abstract class CompiledProjection {
+
+    private final Class<?> projectionType;
+    private final Object[] values;
+
+    protected CompiledProjection(Class<?> projectionType, Object[] values) {
+        this.projectionType = projectionType;
+        this.values = values;
+    }
+
+    protected final Object value(int index) {
+        return values[index];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return Arrays.equals(values, ((CompiledProjection) o).values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+        return projectionType.getSimpleName() + Arrays.toString(values);
+    }
+}
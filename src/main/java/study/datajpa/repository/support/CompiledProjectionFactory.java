@@ -0,0 +1,158 @@
+package study.datajpa.repository.support;
+
+import lombok.extern.slf4j.Slf4j;
+import net.bytebuddy.ByteBuddy;
+import net.bytebuddy.dynamic.DynamicType;
+import net.bytebuddy.dynamic.loading.ClassLoadingStrategy;
+import net.bytebuddy.dynamic.scaffold.subclass.ConstructorStrategy;
+import net.bytebuddy.implementation.MethodCall;
+import net.bytebuddy.implementation.bytecode.assign.Assigner;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static net.bytebuddy.matcher.ElementMatchers.is;
+
+/**
+ * 인터페이스 프로젝션을 JDK 프록시 대신 미리 생성한 클래스로 만드는 ProjectionFactory
+ * - 대상: 닫힌(Closed) 프로젝션 + Tuple 결과 (JPQL select 절 최적화, 네이티브 쿼리)
+ * - 프로젝션마다 인터페이스를 구현한 클래스를 한 번 생성 (ByteBuddy), getter 는 슬롯 번호로 값을 바로 읽는다.
+ * - 행마다 Tuple 에서 값을 한 번씩만 꺼내서 배열에 담는다. (프록시는 getter 호출마다 Map 조회 + 리플렉션)
+ * - 그 외 (열린 프로젝션 @Value SpEL, 중첩 프로젝션, 엔티티 결과)는 기존 프록시 사용
+ */
+@Slf4j
+class CompiledProjectionFactory extends SpelAwareProxyProjectionFactory {
+
+    private static final Method VALUE_METHOD =
+            ReflectionUtils.findMethod(CompiledProjection.class, "value", int.class);
+    private static final MethodType CONSTRUCTOR_TYPE =
+            MethodType.methodType(CompiledProjection.class, Class.class, Object[].class);
+
+    private final ConversionService conversionService = DefaultConversionService.getSharedInstance();
+    private final Map<Class<?>, Optional<CompiledType>> compiledTypes = new ConcurrentHashMap<>();
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T createProjection(Class<T> projectionType, Object source) {
+        if (source instanceof Map && !projectionType.isInstance(source)) {
+            Optional<CompiledType> compiledType = compile(projectionType);
+            if (compiledType.isPresent()) {
+                return (T) compiledType.get().newInstance((Map<String, Object>) source);
+            }
+        }
+        return super.createProjection(projectionType, source);
+    }
+
+    /** 리포지토리 생성 시점에 미리 생성해 둔다 (첫 요청에서 클래스 생성 비용 X) */
+    void precompile(Class<?> projectionType) {
+        if (projectionType.isInterface()) {
+            compile(projectionType);
+        }
+    }
+
+    private Optional<CompiledType> compile(Class<?> projectionType) {
+        return compiledTypes.computeIfAbsent(projectionType, this::generate);
+    }
+
+    private Optional<CompiledType> generate(Class<?> projectionType) {
+        if (!isCompilable(projectionType)) {
+            return Optional.empty();
+        }
+        List<PropertyDescriptor> properties = getProjectionInformation(projectionType).getInputProperties();
+
+        DynamicType.Builder<CompiledProjection> builder = new ByteBuddy()
+                .subclass(CompiledProjection.class, ConstructorStrategy.Default.IMITATE_SUPER_CLASS_PUBLIC)
+                .name(projectionType.getName() + "$Compiled")
+                .implement(projectionType);
+        String[] names = new String[properties.size()];
+        Class<?>[] types = new Class<?>[properties.size()];
+        for (int i = 0; i < properties.size(); i++) {
+            PropertyDescriptor property = properties.get(i);
+            names[i] = property.getName();
+            types[i] = ClassUtils.resolvePrimitiveIfNecessary(property.getPropertyType());
+            builder = builder.method(is(property.getReadMethod()))
+                    .intercept(MethodCall.invoke(VALUE_METHOD).with(i)
+                            .withAssigner(Assigner.DEFAULT, Assigner.Typing.DYNAMIC));
+        }
+
+        Class<? extends CompiledProjection> compiledClass = builder.make()
+                .load(projectionType.getClassLoader(), ClassLoadingStrategy.Default.WRAPPER)
+                .getLoaded();
+        try {
+            MethodHandle constructor = MethodHandles.publicLookup()
+                    .findConstructor(compiledClass, MethodType.methodType(void.class, Class.class, Object[].class))
+                    .asType(CONSTRUCTOR_TYPE);
+            log.debug("Compiled projection {} {}", projectionType.getName(), List.of(names));
+            return Optional.of(new CompiledType(projectionType, constructor, names, types));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException("Cannot compile projection " + projectionType.getName(), e);
+        }
+    }
+
+    /** 닫힌 프로젝션이고, 모든 getter 가 단순 값(중첩 프로젝션, 컬렉션 X)을 반환해야 한다. */
+    private boolean isCompilable(Class<?> projectionType) {
+        if (!Modifier.isPublic(projectionType.getModifiers())) {
+            return false;
+        }
+        ProjectionInformation information = getProjectionInformation(projectionType);
+        if (!information.isClosed()) {
+            return false;
+        }
+        for (Method method : projectionType.getMethods()) {
+            if (method.isDefault() || method.getParameterCount() > 0) {
+                return false;
+            }
+        }
+        for (PropertyDescriptor property : information.getInputProperties()) {
+            Class<?> type = property.getPropertyType();
+            if (property.getReadMethod() == null || type.isInterface() || type.isArray()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private final class CompiledType {
+
+        private final Class<?> projectionType;
+        private final MethodHandle constructor;
+        private final String[] names;
+        private final Class<?>[] types;
+
+        CompiledType(Class<?> projectionType, MethodHandle constructor, String[] names, Class<?>[] types) {
+            this.projectionType = projectionType;
+            this.constructor = constructor;
+            this.names = names;
+            this.types = types;
+        }
+
+        CompiledProjection newInstance(Map<String, Object> source) {
+            Object[] values = new Object[names.length];
+            for (int i = 0; i < names.length; i++) {
+                Object value = source.get(names[i]);
+                //프록시와 같이 타입이 다르면 변환 (예: 네이티브 쿼리 BigInteger -> Long)
+                values[i] = value == null || types[i].isInstance(value)
+                        ? value : conversionService.convert(value, types[i]);
+            }
+            try {
+                return (CompiledProjection) constructor.invokeExact(projectionType, values);
+            } catch (Throwable e) {
+                throw new IllegalStateException("Cannot create projection " + projectionType.getName(), e);
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package study.datajpa.repository.support;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 리포지토리 하나의 count 결과 캐시 (key: 쿼리 메서드 + 조건 파라미터)
+ * - 무효화할 때마다 generation 증가: 세는 도중에 무효화되면 그 결과는 저장하지 않는다 (커밋 전 개수가 다시 캐시되는 것 방지)
+ */
+class CountCache {
+
+    private static final int MAX_ENTRIES = 10_000; //조건 값이 다양해도 무한정 커지지 않도록
+
+    private final Map<List<Object>, Entry> totals = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+
+    Long get(List<Object> key) {
+        Entry entry = totals.get(key);
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expiresAt - System.nanoTime() < 0) {
+            totals.remove(key, entry);
+            return null;
+        }
+        return entry.total;
+    }
+
+    /** 세기 시작할 때 읽어서 put 에 넘긴다 */
+    long generation() {
+        return generation.get();
+    }
+
+    void put(List<Object> key, long total, Duration ttl, long countedGeneration) {
+        if (totals.size() >= MAX_ENTRIES) {
+            totals.clear();
+        }
+        Entry entry = new Entry(total, System.nanoTime() + ttl.toNanos());
+        totals.put(key, entry);
+        if (generation.get() != countedGeneration) {
+            totals.remove(key, entry); //세는 동안 무효화됨
+        }
+    }
+
+    void invalidateAll() {
+        generation.incrementAndGet();
+        totals.clear();
+    }
+
+    private static class Entry {
+        private final long total;
+        private final long expiresAt;
+
+        private Entry(long total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.hibernate.event.spi.PostDeleteEvent;
+import org.hibernate.event.spi.PostDeleteEventListener;
+import org.hibernate.event.spi.PostInsertEvent;
+import org.hibernate.event.spi.PostInsertEventListener;
+import org.hibernate.event.spi.PostUpdateEvent;
+import org.hibernate.event.spi.PostUpdateEventListener;
+import org.hibernate.persister.entity.EntityPersister;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 데이터를 바꾼 트랜잭션이 끝나면 DataChangedEvent 발행 (아웃박스 사용 여부와 상관없이 동작)
+ * - 엔티티 등록/수정/삭제(변경 감지 포함): Hibernate 이벤트로 바뀐 엔티티 종류를 세션(트랜잭션)마다 모아 둔다.
+ * - 벌크 연산(JPQL/JDBC)은 Hibernate 이벤트가 없으므로 changed() 를 직접 호출
+ * - 트랜잭션이 끝나면(커밋/롤백) 한 번만 발행
+ */
+@Component
+public class DataChangePublisher implements PostInsertEventListener, PostUpdateEventListener, PostDeleteEventListener {
+
+    private final EntityManager em;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Map<SessionImplementor, Changes> changes = new ConcurrentHashMap<>();
+
+    public DataChangePublisher(EntityManager em,
+                               EntityManagerFactory entityManagerFactory,
+                               ApplicationEventPublisher eventPublisher) {
+        this.em = em;
+        this.eventPublisher = eventPublisher;
+
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_INSERT, this);
+        listeners.appendListeners(EventType.POST_UPDATE, this);
+        listeners.appendListeners(EventType.POST_DELETE, this);
+    }
+
+    /** 현재 트랜잭션에서 엔티티를 거치지 않고 domainType 을 바꿨다 (벌크 연산) */
+    public void changed(Class<?> domainType) {
+        Assert.state(TransactionSynchronizationManager.isActualTransactionActive(),
+                "Data changes must be recorded within a transaction");
+        changed(em.unwrap(SessionImplementor.class), domainType);
+    }
+
+    @Override
+    public void onPostInsert(PostInsertEvent event) {
+        changed(event.getSession(), event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostUpdate(PostUpdateEvent event) {
+        changed(event.getSession(), event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public void onPostDelete(PostDeleteEvent event) {
+        changed(event.getSession(), event.getPersister().getMappedClass());
+    }
+
+    @Override
+    public boolean requiresPostCommitHanding(EntityPersister persister) {
+        return false;
+    }
+
+    private void changed(SessionImplementor session, Class<?> domainType) {
+        changes.computeIfAbsent(session, this::register).add(domainType);
+    }
+
+    private Changes register(SessionImplementor session) {
+        Changes changes = new Changes(session);
+        session.getActionQueue().registerProcess(changes);
+        return changes;
+    }
+
+    /** 세션 하나에서 바뀐 엔티티 종류 (세션은 한 스레드에서만 사용) */
+    private class Changes implements AfterTransactionCompletionProcess {
+
+        private final SessionImplementor session;
+        private final Set<Class<?>> domainTypes = new HashSet<>();
+
+        Changes(SessionImplementor session) {
+            this.session = session;
+        }
+
+        void add(Class<?> domainType) {
+            domainTypes.add(domainType);
+        }
+
+        @Override
+        public void doAfterTransactionCompletion(boolean success, SharedSessionContractImplementor session) {
+            changes.remove(this.session);
+            //롤백도 발행: 트랜잭션 안에서 센 (커밋되지 않은) 개수가 캐시에 남지 않도록
+            eventPublisher.publishEvent(new DataChangedEvent(DataChangePublisher.this, Set.copyOf(domainTypes)));
+        }
+    }
+}
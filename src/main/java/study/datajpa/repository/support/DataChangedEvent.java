@@ -0,0 +1,31 @@
+package study.datajpa.repository.support;
+
+import org.springframework.context.ApplicationEvent;
+
+import java.util.Set;
+
+/**
+ * 데이터를 바꾼 트랜잭션이 끝났다 (커밋 또는 롤백, 트랜잭션을 끝낸 스레드에서 발행)
+ * - 리포지토리를 거치지 않은 변경(JPQL/JDBC 벌크 연산, 변경 감지)도 포함 -> @CachedCount 캐시 무효화
+ * - 발행: DataChangePublisher
+ */
+public class DataChangedEvent extends ApplicationEvent {
+
+    private final Set<Class<?>> domainTypes;
+
+    public DataChangedEvent(Object source, Set<Class<?>> domainTypes) {
+        super(source);
+        this.domainTypes = domainTypes;
+    }
+
+    /** 바뀐 엔티티 종류 */
+    public Set<Class<?>> getDomainTypes() {
+        return domainTypes;
+    }
+
+    /** domainType 또는 그 상위/하위 엔티티가 바뀌었다 (상속 매핑) */
+    public boolean isChanged(Class<?> domainType) {
+        return domainTypes.stream().anyMatch(changed ->
+                domainType.isAssignableFrom(changed) || changed.isAssignableFrom(domainType));
+    }
+}
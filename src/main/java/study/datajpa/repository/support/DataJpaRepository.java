@@ -0,0 +1,41 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.jpa.repository.support.JpaEntityInformation;
+import org.springframework.data.jpa.repository.support.SimpleJpaRepository;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 프로젝트 공통 리포지토리 구현 (DataJpaRepositoryFactory 의 기본 클래스)
+ * - FetchPlanRepository: 기본 CRUD 조회에 FetchPlan 적용 (FetchPlanEntityManager 가 load graph 로 적용)
+ */
+public class DataJpaRepository<T, ID> extends SimpleJpaRepository<T, ID> implements FetchPlanRepository<T, ID> {
+
+    public DataJpaRepository(JpaEntityInformation<T, ?> entityInformation, EntityManager entityManager) {
+        super(entityInformation, entityManager);
+    }
+
+    @Override
+    public List<T> findAll(FetchPlan<T> fetchPlan) {
+        return withFetchPlan(fetchPlan, () -> findAll());
+    }
+
+    @Override
+    public Optional<T> findById(ID id, FetchPlan<T> fetchPlan) {
+        return withFetchPlan(fetchPlan, () -> findById(id));
+    }
+
+    private <R> R withFetchPlan(FetchPlan<T> fetchPlan, Supplier<R> action) {
+        if (fetchPlan == null) {
+            return action.get();
+        }
+        Assert.isTrue(fetchPlan.getRootType().isAssignableFrom(getDomainClass()),
+                () -> "Fetch plan for " + fetchPlan.getRootType().getSimpleName()
+                        + " cannot be applied to " + getDomainClass().getSimpleName());
+        return FetchPlanEntityManager.execute(fetchPlan, action);
+    }
+}
@@ -0,0 +1,168 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.jpa.provider.PersistenceProvider;
+import org.springframework.data.jpa.provider.QueryExtractor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+import org.springframework.data.jpa.repository.query.JpaQueryLookupStrategy;
+import org.springframework.data.jpa.repository.query.JpaQueryMethod;
+import org.springframework.data.jpa.repository.query.JpaQueryMethodFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.data.jpa.repository.support.JpaRepositoryImplementation;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.core.RepositoryMetadata;
+import org.springframework.data.repository.query.QueryLookupStrategy;
+import org.springframework.data.repository.query.QueryLookupStrategy.Key;
+import org.springframework.data.repository.query.QueryMethodEvaluationContextProvider;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * 프로젝트 공통 리포지토리 팩토리 (리포지토리 하나당 하나씩 생성된다)
+ * - 실행 중인 리포지토리 메서드 기록 (RepositoryMethodContext), 조회 결과 건수 메트릭 (ResultSizeMetrics)
+ * - @CachedCount 쿼리 메서드: count 결과 캐시, 데이터 변경 시 캐시 무효화 (쓰기 메서드 호출 + 트랜잭션 종료 후, DataChangedEvent)
+ * - 인터페이스 프로젝션: 리포지토리 생성 시 구현 클래스를 미리 생성 (CompiledProjectionFactory)
+ * - FetchPlan 파라미터: 호출할 때 넘긴 연관관계를 load graph 로 적용 (FetchPlanEntityManager)
+ *   기본 CRUD 조회는 공통 구현(DataJpaRepository, FetchPlanRepository), 쿼리 메서드는 마지막 파라미터
+ */
+public class DataJpaRepositoryFactory extends JpaRepositoryFactory {
+
+    private final EntityManager entityManager;
+    private final EntityManager queryEntityManager; //쿼리 메서드, 기본 구현용 (FetchPlan 적용)
+    private final QueryExtractor extractor;
+    private final CountCache countCache = new CountCache();
+    private final CompiledProjectionFactory projectionFactory = new CompiledProjectionFactory();
+    private EscapeCharacter escapeCharacter = EscapeCharacter.DEFAULT;
+    private boolean countCacheEnabled = true;
+
+    public DataJpaRepositoryFactory(EntityManager entityManager, ObjectProvider<MeterRegistry> meterRegistry) {
+        super(entityManager);
+        this.entityManager = entityManager;
+        this.queryEntityManager = FetchPlanEntityManager.create(entityManager);
+        this.extractor = PersistenceProvider.fromEntityManager(entityManager);
+        addRepositoryProxyPostProcessor((factory, repositoryInformation) -> {
+            factory.addAdvice(RepositoryMethodContext.interceptor(repositoryInformation.getRepositoryInterface()));
+            factory.addAdvice(new ResultSizeMetrics(meterRegistry, repositoryInformation.getRepositoryInterface(),
+                    repositoryInformation.getDomainType()));
+            factory.addAdvice(countCacheInvalidator());
+            repositoryInformation.getQueryMethods().forEach(method ->
+                    projectionFactory.precompile(repositoryInformation.getReturnedDomainClass(method)));
+        });
+    }
+
+    @Override
+    protected Class<?> getRepositoryBaseClass(RepositoryMetadata metadata) {
+        return DataJpaRepository.class;
+    }
+
+    @Override
+    protected JpaRepositoryImplementation<?, ?> getTargetRepository(RepositoryInformation information,
+                                                                    EntityManager entityManager) {
+        return super.getTargetRepository(information, queryEntityManager);
+    }
+
+    @Override
+    protected ProjectionFactory getProjectionFactory(ClassLoader classLoader, BeanFactory beanFactory) {
+        projectionFactory.setBeanClassLoader(classLoader);
+        projectionFactory.setBeanFactory(beanFactory);
+        return projectionFactory;
+    }
+
+    @Override
+    public void setEscapeCharacter(EscapeCharacter escapeCharacter) {
+        super.setEscapeCharacter(escapeCharacter);
+        this.escapeCharacter = escapeCharacter;
+    }
+
+    /** false: @CachedCount 를 무시하고 항상 count 쿼리 실행 (벤치마크 등) */
+    public void setCountCacheEnabled(boolean countCacheEnabled) {
+        this.countCacheEnabled = countCacheEnabled;
+    }
+
+    @Override
+    protected Optional<QueryLookupStrategy> getQueryLookupStrategy(Key key,
+                                                                   QueryMethodEvaluationContextProvider evaluationContextProvider) {
+        JpaQueryMethodFactory queryMethodFactory = (method, metadata, projectionFactory) ->
+                new FetchPlanJpaQueryMethod(method, metadata, projectionFactory, extractor);
+        QueryLookupStrategy defaultStrategy = JpaQueryLookupStrategy.create(queryEntityManager, queryMethodFactory, key,
+                evaluationContextProvider, escapeCharacter);
+        JpaQueryMethodFactory sliceMethodFactory = (method, metadata, projectionFactory) ->
+                new SliceJpaQueryMethod(method, metadata, projectionFactory, extractor);
+        QueryLookupStrategy sliceStrategy = JpaQueryLookupStrategy.create(queryEntityManager, sliceMethodFactory, key,
+                evaluationContextProvider, escapeCharacter);
+
+        return Optional.of((method, metadata, projectionFactory, namedQueries) -> {
+            RepositoryQuery query = defaultStrategy.resolveQuery(method, metadata, projectionFactory, namedQueries);
+            CachedCount cachedCount = AnnotatedElementUtils.findMergedAnnotation(method, CachedCount.class);
+            if (countCacheEnabled && cachedCount != null && query.getQueryMethod().isPageQuery()) {
+                RepositoryQuery sliceQuery = sliceStrategy.resolveQuery(method, metadata, projectionFactory, namedQueries);
+                query = new CachedCountRepositoryQuery(method, query, sliceQuery, countCache,
+                        Duration.ofSeconds(cachedCount.ttlSeconds()));
+            }
+            int fetchPlanIndex = FetchPlanJpaQueryMethod.fetchPlanIndex(method);
+            if (fetchPlanIndex >= 0) {
+                assertFetchPlanSupported((JpaQueryMethod) query.getQueryMethod());
+                query = new FetchPlanRepositoryQuery(query, fetchPlanIndex);
+            }
+            return query;
+        });
+    }
+
+    /** load graph 는 엔티티 조회에만 의미가 있다 (List<String> 같은 스칼라 조회 X) -> 잘못 선언하면 애플리케이션 시작 시 오류 */
+    private static void assertFetchPlanSupported(JpaQueryMethod method) {
+        if (method.isModifyingQuery() || method.isNativeQuery()
+                || method.getResultProcessor().getReturnedType().isProjecting()
+                || !method.getEntityInformation().getJavaType().isAssignableFrom(method.getReturnedObjectType())) {
+            throw new IllegalStateException("FetchPlan parameter is only supported on JPQL query methods returning entities: "
+                    + method);
+        }
+    }
+
+    /** 리포지토리를 거치지 않은 변경 포함, 변경한 트랜잭션이 끝나면 호출 (DataJpaRepositoryFactoryBean) */
+    void invalidateCountCache() {
+        countCache.invalidateAll();
+    }
+
+    /**
+     * 이 리포지토리로 데이터를 바꾸면 count 캐시를 비운다
+     * - 바로 비우면 같은 트랜잭션의 다음 조회가 다시 센다.
+     * - 그 개수는 커밋 전 값이므로 트랜잭션이 끝난 후(커밋/롤백) 한 번 더 비운다.
+     */
+    private MethodInterceptor countCacheInvalidator() {
+        return invocation -> {
+            try {
+                return invocation.proceed();
+            } finally {
+                if (isWrite(invocation.getMethod())) {
+                    countCache.invalidateAll();
+                    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                            @Override
+                            public void afterCompletion(int status) {
+                                countCache.invalidateAll();
+                            }
+                        });
+                    }
+                }
+            }
+        };
+    }
+
+    private static boolean isWrite(Method method) {
+        String name = method.getName();
+        return name.startsWith("save") || name.startsWith("delete")
+                || AnnotatedElementUtils.hasAnnotation(method, Modifying.class);
+    }
+}
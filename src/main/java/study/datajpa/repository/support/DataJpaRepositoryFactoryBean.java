@@ -0,0 +1,78 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactoryBean;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.core.support.RepositoryFactorySupport;
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+
+import javax.persistence.EntityManager;
+
+/**
+ * DataJpaRepositoryFactory 를 사용하도록 등록 (@EnableJpaRepositories 의 repositoryFactoryBeanClass)
+ * - RepositoryProxyPostProcessor 스프링 빈은 모든 리포지토리에 적용 (트랜잭션 AOP 안쪽에서 실행, Outer~ 는 바깥)
+ * - DataChangedEvent: 팩토리 빈 자체가 리스너로 등록되어 이 리포지토리의 엔티티가 바뀌었으면 count 캐시를 비운다
+ */
+public class DataJpaRepositoryFactoryBean<T extends Repository<S, ID>, S, ID> extends JpaRepositoryFactoryBean<T, S, ID>
+        implements ApplicationListener<DataChangedEvent> {
+
+    private ObjectProvider<MeterRegistry> meterRegistry;
+    private ObjectProvider<RepositoryProxyPostProcessor> postProcessors;
+    private boolean countCacheEnabled = true;
+    private DataJpaRepositoryFactory factory;
+    private Class<?> domainType;
+
+    public DataJpaRepositoryFactoryBean(Class<? extends T> repositoryInterface) {
+        super(repositoryInterface);
+    }
+
+    @Autowired
+    public void setMeterRegistry(ObjectProvider<MeterRegistry> meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Value("${repository.count-cache.enabled:true}")
+    public void setCountCacheEnabled(boolean countCacheEnabled) {
+        this.countCacheEnabled = countCacheEnabled;
+    }
+
+    /**
+     * createRepositoryFactory 에서 추가하면 트랜잭션 AOP 보다 바깥이 되므로 customizer 로 나중에 추가
+     * - OuterRepositoryProxyPostProcessor 는 createRepositoryFactory 에서 추가 (트랜잭션 AOP 바깥)
+     */
+    @Autowired
+    public void setRepositoryProxyPostProcessors(ObjectProvider<RepositoryProxyPostProcessor> postProcessors) {
+        this.postProcessors = postProcessors;
+        addRepositoryFactoryCustomizer(factory -> postProcessors.orderedStream()
+                .filter(postProcessor -> !(postProcessor instanceof OuterRepositoryProxyPostProcessor))
+                .forEach(factory::addRepositoryProxyPostProcessor));
+    }
+
+    @Override
+    protected RepositoryFactorySupport createRepositoryFactory(EntityManager entityManager) {
+        DataJpaRepositoryFactory factory = new DataJpaRepositoryFactory(entityManager, meterRegistry);
+        factory.setCountCacheEnabled(countCacheEnabled);
+        postProcessors.orderedStream()
+                .filter(OuterRepositoryProxyPostProcessor.class::isInstance)
+                .forEach(factory::addRepositoryProxyPostProcessor);
+        this.factory = factory;
+        return factory;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        this.domainType = getRepositoryInformation().getDomainType();
+    }
+
+    @Override
+    public void onApplicationEvent(DataChangedEvent event) {
+        if (factory != null && domainType != null && event.isChanged(domainType)) {
+            factory.invalidateCountCache();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package study.datajpa.repository.support;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * 쿼리 메서드 호출 시 함께 조회할 연관관계 (load graph 로 적용)
+ * - 쿼리 메서드(메서드 이름 쿼리, @Query)의 마지막 파라미터로 받는다. 바인딩 파라미터가 아니다.
+ *   예) memberRepository.findByAge(10, pageable, FetchPlan.of(Member.class).with("team"))
+ * - 메서드마다 @EntityGraph 를 나누지 않고 호출하는 쪽에서 필요한 만큼만 fetch join
+ * - "team.members" 처럼 여러 단계 지정 가능 (컬렉션을 페이징과 같이 쓰면 메모리에서 페이징하므로 주의)
+ * - 불변 객체: 상수로 만들어두고 재사용, 같은 플랜은 EntityGraph 로 한 번만 변환해서 캐시 (FetchPlanEntityManager)
+ */
+@Getter
+@EqualsAndHashCode
+@ToString
+public final class FetchPlan<T> {
+
+    private final Class<T> rootType;
+    private final Set<String> attributePaths;
+
+    private FetchPlan(Class<T> rootType, Set<String> attributePaths) {
+        this.rootType = rootType;
+        this.attributePaths = Collections.unmodifiableSet(attributePaths);
+    }
+
+    public static <T> FetchPlan<T> of(Class<T> rootType) {
+        Assert.notNull(rootType, "Root type must not be null");
+        return new FetchPlan<>(rootType, new LinkedHashSet<>());
+    }
+
+    /** 연관관계 경로 추가 (새 플랜 반환) */
+    public FetchPlan<T> with(String... attributePaths) {
+        Set<String> paths = new LinkedHashSet<>(this.attributePaths);
+        for (String path : attributePaths) {
+            Assert.isTrue(StringUtils.hasText(path), "Attribute path must not be empty");
+            paths.add(path);
+        }
+        return new FetchPlan<>(rootType, paths);
+    }
+}
@@ -0,0 +1,140 @@
+package study.datajpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.hibernate.graph.GraphSemantic;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.core.NamedThreadLocal;
+
+import javax.persistence.EntityGraph;
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.Query;
+import javax.persistence.Subgraph;
+import javax.persistence.criteria.CriteriaQuery;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * 쿼리 메서드가 만드는 JPQL/Criteria 쿼리에 현재 FetchPlan 을 load graph 힌트로 적용
+ * - 쿼리 메서드(JpaQueryLookupStrategy), 기본 리포지토리(DataJpaRepository)에 넘기는 EntityManager 를 감싼다.
+ *   FetchPlan 이 없으면 그대로 통과
+ * - 엔티티를 조회하는 쿼리와 find(id 조회)에만 적용 (count 쿼리 X)
+ * - FetchPlan -> EntityGraph 변환 결과는 캐시 (변환 후에는 수정하지 않으므로 여러 스레드에서 공유)
+ */
+class FetchPlanEntityManager implements MethodInterceptor {
+
+    private static final ThreadLocal<FetchPlan<?>> CURRENT = new NamedThreadLocal<>("Current fetch plan");
+
+    private final EntityManager entityManager;
+    private final Map<FetchPlan<?>, EntityGraph<?>> graphs = new ConcurrentHashMap<>();
+
+    private FetchPlanEntityManager(EntityManager entityManager) {
+        this.entityManager = entityManager;
+    }
+
+    static EntityManager create(EntityManager entityManager) {
+        ProxyFactory proxyFactory = new ProxyFactory(entityManager);
+        proxyFactory.addAdvice(new FetchPlanEntityManager(entityManager));
+        return (EntityManager) proxyFactory.getProxy(entityManager.getClass().getClassLoader());
+    }
+
+    /** action 안에서 만드는 쿼리에 fetchPlan 적용 */
+    static <R> R execute(FetchPlan<?> fetchPlan, Supplier<R> action) {
+        FetchPlan<?> previous = CURRENT.get();
+        CURRENT.set(fetchPlan);
+        try {
+            return action.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        FetchPlan<?> fetchPlan = CURRENT.get();
+        if (fetchPlan != null && invocation.getMethod().getName().equals("find")) {
+            return find(fetchPlan, invocation.getArguments());
+        }
+        Object result = invocation.proceed();
+        if (fetchPlan == null || !(result instanceof Query)) {
+            return result;
+        }
+        String name = invocation.getMethod().getName();
+        if ((name.equals("createQuery") || name.equals("createNamedQuery"))
+                && selectsRoot(fetchPlan, invocation.getArguments())) {
+            ((Query) result).setHint(GraphSemantic.LOAD.getJpaHintName(), graphs.computeIfAbsent(fetchPlan, this::compile));
+        }
+        return result;
+    }
+
+    /** find(type, id), find(type, id, hints), find(type, id, lockMode, hints) 에 load graph 힌트 추가 */
+    @SuppressWarnings("unchecked")
+    private Object find(FetchPlan<?> fetchPlan, Object[] arguments) {
+        Class<Object> type = (Class<Object>) arguments[0];
+        Object id = arguments[1];
+        LockModeType lockMode = null;
+        Map<String, Object> hints = new HashMap<>();
+        for (int i = 2; i < arguments.length; i++) {
+            if (arguments[i] instanceof LockModeType) {
+                lockMode = (LockModeType) arguments[i];
+            } else if (arguments[i] instanceof Map) {
+                hints.putAll((Map<String, Object>) arguments[i]);
+            }
+        }
+        if (fetchPlan.getRootType().isAssignableFrom(type)) {
+            hints.remove(GraphSemantic.FETCH.getJpaHintName()); //그래프는 하나만
+            hints.put(GraphSemantic.LOAD.getJpaHintName(), graphs.computeIfAbsent(fetchPlan, this::compile));
+        }
+        return lockMode != null ? entityManager.find(type, id, lockMode, hints) : entityManager.find(type, id, hints);
+    }
+
+    /** 결과 타입이 FetchPlan 의 엔티티인 쿼리인지 (타입 지정 없는 JPQL 은 엔티티 조회로 본다) */
+    private static boolean selectsRoot(FetchPlan<?> fetchPlan, Object[] arguments) {
+        if (arguments.length == 2 && arguments[1] instanceof Class) {
+            return fetchPlan.getRootType().isAssignableFrom((Class<?>) arguments[1]);
+        }
+        if (arguments[0] instanceof CriteriaQuery) {
+            return fetchPlan.getRootType().isAssignableFrom(((CriteriaQuery<?>) arguments[0]).getResultType());
+        }
+        return arguments.length == 1 && arguments[0] instanceof String;
+    }
+
+    /** "team", "team.members" -> team 서브그래프에 members */
+    private EntityGraph<?> compile(FetchPlan<?> fetchPlan) {
+        EntityGraph<?> graph = entityManager.createEntityGraph(fetchPlan.getRootType());
+        Map<String, Subgraph<?>> subgraphs = new HashMap<>();
+        for (String path : fetchPlan.getAttributePaths()) {
+            boolean hasChildren = fetchPlan.getAttributePaths().stream().anyMatch(other -> other.startsWith(path + "."));
+            if (hasChildren) {
+                subgraph(graph, subgraphs, path);
+                continue;
+            }
+            int dot = path.lastIndexOf('.');
+            if (dot < 0) {
+                graph.addAttributeNodes(path);
+            } else {
+                subgraph(graph, subgraphs, path.substring(0, dot)).addAttributeNodes(path.substring(dot + 1));
+            }
+        }
+        return graph;
+    }
+
+    private static Subgraph<?> subgraph(EntityGraph<?> graph, Map<String, Subgraph<?>> subgraphs, String path) {
+        Subgraph<?> subgraph = subgraphs.get(path);
+        if (subgraph == null) {
+            int dot = path.lastIndexOf('.');
+            subgraph = dot < 0
+                    ? graph.addSubgraph(path)
+                    : subgraph(graph, subgraphs, path.substring(0, dot)).addSubgraph(path.substring(dot + 1));
+            subgraphs.put(path, subgraph);
+        }
+        return subgraph;
+    }
+}
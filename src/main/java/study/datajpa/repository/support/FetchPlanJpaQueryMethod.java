@@ -0,0 +1,61 @@
+package study.datajpa.repository.support;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.data.jpa.provider.QueryExtractor;
+import org.springframework.data.jpa.repository.query.JpaParameters;
+import org.springframework.data.jpa.repository.query.JpaQueryMethod;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.repository.core.RepositoryMetadata;
+
+import java.lang.reflect.Method;
+
+/**
+ * FetchPlan 파라미터를 Pageable, Sort 처럼 특수 파라미터로 취급 (쿼리에 바인딩 X)
+ */
+class FetchPlanJpaQueryMethod extends JpaQueryMethod {
+
+    FetchPlanJpaQueryMethod(Method method, RepositoryMetadata metadata, ProjectionFactory factory,
+                            QueryExtractor extractor) {
+        super(method, metadata, factory, extractor);
+    }
+
+    /** FetchPlan 파라미터 위치, 없으면 -1 */
+    static int fetchPlanIndex(Method method) {
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (FetchPlan.class.equals(parameterTypes[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    protected JpaParameters createParameters(Method method) {
+        return new FetchPlanParameters(method);
+    }
+
+    private static class FetchPlanParameters extends JpaParameters {
+
+        FetchPlanParameters(Method method) {
+            super(method);
+        }
+
+        @Override
+        protected JpaParameter createParameter(MethodParameter parameter) {
+            return new FetchPlanParameter(parameter);
+        }
+    }
+
+    private static class FetchPlanParameter extends JpaParameters.JpaParameter {
+
+        FetchPlanParameter(MethodParameter parameter) {
+            super(parameter);
+        }
+
+        @Override
+        public boolean isSpecialParameter() {
+            return super.isSpecialParameter() || FetchPlan.class.equals(getType());
+        }
+    }
+}
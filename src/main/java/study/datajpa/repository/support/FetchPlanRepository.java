@@ -0,0 +1,17 @@
+package study.datajpa.repository.support;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * 모든 리포지토리 공통 FetchPlan 조회 (구현: DataJpaRepository)
+ * - 리포지토리 인터페이스가 상속하면 메서드마다 FetchPlan 오버로드를 만들지 않아도 된다.
+ *   예) memberRepository.findById(id, FetchPlan.of(Member.class).with("team"))
+ * - FetchPlan 이 null 이면 엔티티 매핑대로 (지연 로딩)
+ */
+public interface FetchPlanRepository<T, ID> {
+
+    List<T> findAll(FetchPlan<T> fetchPlan);
+
+    Optional<T> findById(ID id, FetchPlan<T> fetchPlan);
+}
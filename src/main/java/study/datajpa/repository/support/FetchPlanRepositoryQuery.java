@@ -0,0 +1,40 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.repository.query.QueryMethod;
+import org.springframework.data.repository.query.RepositoryQuery;
+import org.springframework.util.Assert;
+
+/**
+ * FetchPlan 파라미터가 있는 쿼리 메서드 실행
+ * - 파라미터로 받은 FetchPlan 을 지정하고 원래 쿼리 실행 (FetchPlanEntityManager 가 load graph 로 적용)
+ * - FetchPlan 이 null 이면 엔티티 매핑대로 (지연 로딩)
+ */
+class FetchPlanRepositoryQuery implements RepositoryQuery {
+
+    private final RepositoryQuery query;
+    private final int fetchPlanIndex;
+    private final Class<?> entityType;
+
+    FetchPlanRepositoryQuery(RepositoryQuery query, int fetchPlanIndex) {
+        this.query = query;
+        this.fetchPlanIndex = fetchPlanIndex;
+        this.entityType = query.getQueryMethod().getEntityInformation().getJavaType();
+    }
+
+    @Override
+    public Object execute(Object[] parameters) {
+        FetchPlan<?> fetchPlan = (FetchPlan<?>) parameters[fetchPlanIndex];
+        if (fetchPlan == null) {
+            return query.execute(parameters);
+        }
+        Assert.isTrue(fetchPlan.getRootType().isAssignableFrom(entityType),
+                () -> "Fetch plan for " + fetchPlan.getRootType().getSimpleName()
+                        + " cannot be applied to a query for " + entityType.getSimpleName());
+        return FetchPlanEntityManager.execute(fetchPlan, () -> query.execute(parameters));
+    }
+
+    @Override
+    public QueryMethod getQueryMethod() {
+        return query.getQueryMethod();
+    }
+}
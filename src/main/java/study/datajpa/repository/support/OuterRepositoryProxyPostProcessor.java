@@ -0,0 +1,11 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.repository.core.support.RepositoryProxyPostProcessor;
+
+/**
+ * 트랜잭션 AOP 바깥에서 실행되는 RepositoryProxyPostProcessor (스프링 빈으로 등록)
+ * - 트랜잭션 시작 전에 결정해야 하는 것 (예: 샤드 선택) 또는 샤드마다 따로 트랜잭션을 열어야 할 때 사용
+ * - 일반 RepositoryProxyPostProcessor 빈은 트랜잭션 안쪽 (DataJpaRepositoryFactoryBean)
+ */
+public interface OuterRepositoryProxyPostProcessor extends RepositoryProxyPostProcessor {
+}
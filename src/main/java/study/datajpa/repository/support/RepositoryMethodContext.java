@@ -0,0 +1,64 @@
+package study.datajpa.repository.support;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.core.NamedThreadLocal;
+
+import java.lang.reflect.Method;
+
+/**
+ * 지금 실행 중인 리포지토리 메서드 이름 (예: MemberRepository.findAll)과 파라미터
+ * - SQL 통계/메트릭을 어떤 리포지토리 메서드가 만들었는지 구분하기 위해 사용
+ * - 리포지토리 안에서 다른 리포지토리를 호출하면 바깥(처음) 메서드 기준
+ */
+public abstract class RepositoryMethodContext {
+
+    private static final Object[] NO_ARGUMENTS = new Object[0];
+    private static final ThreadLocal<Invocation> CURRENT = new NamedThreadLocal<>("Current repository method");
+
+    /** 리포지토리 메서드 밖(지연 로딩 등)이면 null */
+    public static String current() {
+        Invocation invocation = CURRENT.get();
+        return invocation != null ? invocation.name : null;
+    }
+
+    /** 리포지토리 메서드 밖이면 null */
+    public static Method currentMethod() {
+        Invocation invocation = CURRENT.get();
+        return invocation != null ? invocation.method : null;
+    }
+
+    /** 리포지토리 메서드 파라미터 (쿼리에 바인딩되는 값), 리포지토리 메서드 밖이면 빈 배열 */
+    public static Object[] currentArguments() {
+        Invocation invocation = CURRENT.get();
+        return invocation != null ? invocation.arguments : NO_ARGUMENTS;
+    }
+
+    static MethodInterceptor interceptor(Class<?> repositoryInterface) {
+        String prefix = repositoryInterface.getSimpleName() + ".";
+        return invocation -> {
+            if (CURRENT.get() != null) {
+                return invocation.proceed();
+            }
+            CURRENT.set(new Invocation(prefix + invocation.getMethod().getName(), invocation.getMethod(),
+                    invocation.getArguments()));
+            try {
+                return invocation.proceed();
+            } finally {
+                CURRENT.remove();
+            }
+        };
+    }
+
+    private static final class Invocation {
+
+        private final String name;
+        private final Method method;
+        private final Object[] arguments;
+
+        private Invocation(String name, Method method, Object[] arguments) {
+            this.name = name;
+            this.method = method;
+            this.arguments = arguments;
+        }
+    }
+}
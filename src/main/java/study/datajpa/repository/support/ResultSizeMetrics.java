@@ -0,0 +1,85 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Slice;
+import study.datajpa.repository.Window;
+
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 리포지토리 메서드별 조회 결과 건수 (repository.results, tag: repository, method)
+ * - 실행 시간/에러 수는 스프링 부트가 spring.data.repository.invocations 로 기록한다.
+ * - 메서드별 DistributionSummary 를 한 번만 만들어 두고 재사용 (호출마다 map 조회 1번)
+ * - 컬렉션, Page/Slice, Window: 건수 / Optional, 엔티티 단건: 있으면 1, 없으면 0
+ */
+class ResultSizeMetrics implements MethodInterceptor {
+
+    private static final int NOT_MEASURED = -1;
+
+    private final ObjectProvider<MeterRegistry> meterRegistry;
+    private final String repositoryName;
+    private final Class<?> domainType;
+    private final Map<Method, DistributionSummary> summaries = new ConcurrentHashMap<>();
+
+    ResultSizeMetrics(ObjectProvider<MeterRegistry> meterRegistry, Class<?> repositoryInterface, Class<?> domainType) {
+        this.meterRegistry = meterRegistry;
+        this.repositoryName = repositoryInterface.getSimpleName();
+        this.domainType = domainType;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Object result = invocation.proceed();
+        int size = sizeOf(invocation.getMethod(), result);
+        if (size != NOT_MEASURED) {
+            DistributionSummary summary = summary(invocation.getMethod());
+            if (summary != null) {
+                summary.record(size);
+            }
+        }
+        return result;
+    }
+
+    private DistributionSummary summary(Method method) {
+        DistributionSummary summary = summaries.get(method);
+        if (summary != null) {
+            return summary;
+        }
+        MeterRegistry registry = meterRegistry.getIfAvailable();
+        if (registry == null) {
+            return null;
+        }
+        return summaries.computeIfAbsent(method, it -> DistributionSummary.builder("repository.results")
+                .tag("repository", repositoryName)
+                .tag("method", it.getName())
+                .register(registry));
+    }
+
+    /** 조회 결과만 측정 (count, 수정 건수, Stream 등은 제외) */
+    private int sizeOf(Method method, Object result) {
+        if (result instanceof Collection) {
+            return ((Collection<?>) result).size();
+        }
+        if (result instanceof Slice) {
+            return ((Slice<?>) result).getNumberOfElements();
+        }
+        if (result instanceof Window) {
+            return ((Window<?>) result).getContent().size();
+        }
+        if (result instanceof Optional) {
+            return ((Optional<?>) result).isPresent() ? 1 : 0;
+        }
+        if (domainType.isAssignableFrom(method.getReturnType())) { //엔티티 단건 (없으면 null)
+            return result != null ? 1 : 0;
+        }
+        return NOT_MEASURED;
+    }
+}
@@ -0,0 +1,51 @@
+package study.datajpa.repository.support;
+
+import org.springframework.core.NamedThreadLocal;
+
+import java.util.function.Supplier;
+
+/**
+ * 지금 사용할 샤드 (샤딩 설정 시, ShardRoutingDataSource 가 커넥션을 얻을 때 사용)
+ * - 트랜잭션이 커넥션을 얻기 전에 지정해야 한다. (트랜잭션 하나 = 샤드 하나)
+ * - 지정하지 않으면 기본 샤드 (0번)
+ */
+public abstract class ShardContext {
+
+    private static final ThreadLocal<Integer> CURRENT = new NamedThreadLocal<>("Current shard");
+
+    /** 지정하지 않았으면 null */
+    public static Integer current() {
+        return CURRENT.get();
+    }
+
+    /** close 하면 이전 샤드로 돌아간다 (try-with-resources) */
+    public static Scope open(int shard) {
+        Scope scope = new Scope(CURRENT.get());
+        CURRENT.set(shard);
+        return scope;
+    }
+
+    public static <R> R execute(int shard, Supplier<R> action) {
+        try (Scope ignored = open(shard)) {
+            return action.get();
+        }
+    }
+
+    public static final class Scope implements AutoCloseable {
+
+        private final Integer previous;
+
+        private Scope(Integer previous) {
+            this.previous = previous;
+        }
+
+        @Override
+        public void close() {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.jpa.provider.QueryExtractor;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.repository.core.RepositoryMetadata;
+
+import java.lang.reflect.Method;
+
+/**
+ * Page 를 반환하는 메서드를 Slice 쿼리로 실행 (count 쿼리 X, size + 1 건 조회)
+ * - @CachedCount 메서드에서 전체 개수가 캐시되어 있을 때만 사용
+ */
+class SliceJpaQueryMethod extends FetchPlanJpaQueryMethod {
+
+    SliceJpaQueryMethod(Method method, RepositoryMetadata metadata, ProjectionFactory factory, QueryExtractor extractor) {
+        super(method, metadata, factory, extractor);
+    }
+
+    @Override
+    public boolean isSliceQuery() {
+        return true;
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.service.support.OptimisticRetry;
+
+import java.util.List;
+
+/**
+ * MemberService 의 트랜잭션 단위 (샤딩 시 샤드 하나에서 실행)
+ * - 트랜잭션을 시작하기 전에 샤드를 골라야 하므로 샤드를 고르는 MemberService 와 나눴다.
+ * - 낙관적 락 재시도도 샤드 단위 (이미 커밋된 샤드를 다시 수정 X)
+ */
+@Component
+@RequiredArgsConstructor
+class MemberAgeUpdater {
+
+    private final MemberRepository memberRepository;
+
+    @Transactional
+    public int increaseAgeWithPessimisticLock(String username) {
+        return increaseAgeOf(memberRepository.findLockByUsername(username));
+    }
+
+    @OptimisticRetry(maxAttempts = 10)
+    @Transactional
+    public int increaseAge(String username) {
+        return increaseAgeOf(memberRepository.findListByUsername(username));
+    }
+
+    private int increaseAgeOf(List<Member> members) {
+        members.forEach(member -> member.setAge(member.getAge() + 1)); //변경 감지
+        return members.size();
+    }
+}
@@ -0,0 +1,45 @@
+package study.datajpa.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Service;
+import study.datajpa.config.Shards;
+import study.datajpa.repository.support.ShardContext;
+
+import java.util.function.Supplier;
+
+/**
+ * 같은 회원을 동시에 수정하는 경우 (예: 인기 회원의 카운터)
+ * - 비관적 락: select ... for update, 먼저 잡은 트랜잭션이 끝날 때까지 다른 트랜잭션은 대기 (충돌이 잦을 때)
+ * - 낙관적 락: 락 없이 읽고 커밋 시 @Version 확인, 충돌하면 처음부터 다시 (충돌이 드물 때, 대기 X)
+ * - 비교: MemberLockBenchmark (./gradlew jmh)
+ * - 샤딩 시 username 으로는 샤드를 알 수 없으므로 샤드마다 트랜잭션을 따로 열어서 수정한다. (MemberShardRouter)
+ */
+@Service
+@RequiredArgsConstructor
+public class MemberService {
+
+    private final MemberAgeUpdater memberAgeUpdater;
+    private final ObjectProvider<Shards> shards;
+
+    public int increaseAgeWithPessimisticLock(String username) {
+        return onEachShard(() -> memberAgeUpdater.increaseAgeWithPessimisticLock(username));
+    }
+
+    public int increaseAge(String username) {
+        return onEachShard(() -> memberAgeUpdater.increaseAge(username));
+    }
+
+    /** 수정한 회원 수의 합 */
+    private int onEachShard(Supplier<Integer> update) {
+        Shards shards = this.shards.getIfAvailable();
+        if (shards == null) {
+            return update.get();
+        }
+        int updated = 0;
+        for (int shard = 0; shard < shards.count(); shard++) {
+            updated += ShardContext.execute(shard, update);
+        }
+        return updated;
+    }
+}
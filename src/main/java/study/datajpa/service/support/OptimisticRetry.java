@@ -0,0 +1,26 @@
+package study.datajpa.service.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 낙관적 락 충돌(@Version) 시 메서드 전체를 다시 실행
+ * - 트랜잭션을 새로 시작해야 최신 버전을 다시 읽으므로 @Transactional 메서드에 같이 붙인다. (재시도가 트랜잭션 바깥)
+ * - 이미 트랜잭션 안에서 호출되면 재시도하지 않는다. (바깥 트랜잭션이 rollback-only 가 되므로 의미 없음)
+ * - 대기 시간: min(backoffMillis * 2^(시도-1), maxBackoffMillis) 안에서 랜덤 (full jitter, 동시에 재시도하지 않도록)
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface OptimisticRetry {
+
+    /** 처음 실행 포함 최대 실행 횟수 */
+    int maxAttempts() default 5;
+
+    long backoffMillis() default 10;
+
+    long maxBackoffMillis() default 200;
+}
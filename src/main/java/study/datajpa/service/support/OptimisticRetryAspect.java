@@ -0,0 +1,61 @@
+package study.datajpa.service.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * @OptimisticRetry 처리
+ * - 트랜잭션 AOP(LOWEST_PRECEDENCE)보다 먼저 실행되어야 재시도마다 트랜잭션이 새로 시작된다.
+ * - 재시도 횟수: optimistic.retries (tag: method), 끝내 실패: optimistic.failures
+ */
+@Slf4j
+@Aspect
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@RequiredArgsConstructor
+public class OptimisticRetryAspect {
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("@annotation(retry)")
+    public Object retry(ProceedingJoinPoint joinPoint, OptimisticRetry retry) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return joinPoint.proceed();
+        }
+
+        String method = joinPoint.getSignature().toShortString();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return joinPoint.proceed();
+            } catch (OptimisticLockingFailureException | OptimisticLockException e) {
+                if (attempt >= retry.maxAttempts()) {
+                    Counter.builder("optimistic.failures").tag("method", method).register(meterRegistry).increment();
+                    throw e;
+                }
+                Counter.builder("optimistic.retries").tag("method", method).register(meterRegistry).increment();
+                long backoff = backoffMillis(retry, attempt);
+                log.debug("Optimistic lock conflict: {} attempt={}, retry in {}ms", method, attempt, backoff);
+                Thread.sleep(backoff);
+            }
+        }
+    }
+
+    private static long backoffMillis(OptimisticRetry retry, int attempt) {
+        long exponential = retry.backoffMillis() << Math.min(attempt - 1, 20); //overflow 방지
+        long bound = Math.min(exponential, retry.maxBackoffMillis());
+        return bound <= 0 ? 0 : ThreadLocalRandom.current().nextLong(bound + 1);
+    }
+}
@@ -0,0 +1,35 @@
+package study.datajpa;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Collectors;
+
+/**
+ * 테스트용: SQL 을 실행한 스레드 이름 기록
+ * - spring.jpa.properties.hibernate.session_factory.statement_inspector=study.datajpa.SqlThreads
+ */
+public class SqlThreads implements StatementInspector {
+
+    private static final Queue<String[]> executed = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public String inspect(String sql) {
+        executed.add(new String[]{Thread.currentThread().getName(), sql});
+        return sql;
+    }
+
+    /** sqlFragment 가 들어간 SQL 을 실행한 스레드 */
+    public static List<String> of(String sqlFragment) {
+        return executed.stream()
+                .filter(entry -> entry[1].contains(sqlFragment))
+                .map(entry -> entry[0])
+                .collect(Collectors.toList());
+    }
+
+    public static void clear() {
+        executed.clear();
+    }
+}
@@ -0,0 +1,46 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * auditing.cached=true: 등록자/수정자, 등록일/수정일을 트랜잭션마다 한 번만 계산 (엔티티 저장, 벌크 연산 모두)
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cached-auditing;DB_CLOSE_DELAY=-1",
+        "auditing.cached=true"})
+@Transactional
+class CachedAuditingTest {
+
+    @Autowired MemberRepository memberRepository;
+    @PersistenceContext EntityManager em;
+
+    @Test
+    public void sameValuesInTransaction() {
+        //given: 같은 트랜잭션에서 저장한 엔티티는 같은 등록자, 같은 등록 시각
+        Member member1 = memberRepository.save(new Member("auditMember1", 7000));
+        Member member2 = memberRepository.save(new Member("auditMember2", 7000));
+        em.flush();
+
+        assertThat(member1.getCreatedBy()).isNotNull().isEqualTo(member2.getCreatedBy());
+        assertThat(member1.getCreatedDate()).isNotNull().isEqualTo(member2.getCreatedDate());
+
+        //when: 벌크 연산도 같은 값
+        memberRepository.bulkAgePlus(7000);
+
+        //then
+        Member findMember = memberRepository.findById(member1.getId()).get();
+        assertThat(findMember.getAge()).isEqualTo(7001);
+        assertThat(findMember.getLastModifiedBy()).isEqualTo(member1.getCreatedBy());
+        assertThat(findMember.getLastModifiedDate()).isEqualTo(findMember.getCreatedDate());
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * fast-startup 프로필: 리포지토리는 처음 사용할 때 생성 (bootstrap-mode: lazy)
+ * - 메모리 DB 라 스키마가 없으므로 스키마 생성, 검증 X
+ */
+@ActiveProfiles("fast-startup")
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:lazy-bootstrap;DB_CLOSE_DELAY=-1",
+        "spring.jpa.hibernate.ddl-auto=create",
+        "schema.validate=false"})
+class JpaRepositoryConfigTest {
+
+    @Autowired ConfigurableListableBeanFactory beanFactory;
+    @Autowired MemberRepository memberRepository; //지연 프록시가 주입된다
+
+    @Test
+    public void lazyRepositoryBootstrap() {
+        //given
+        assertThat(beanFactory.getBeanDefinition("memberRepository").isLazyInit()).isTrue();
+        assertThat(beanFactory.containsSingleton("memberRepository")).isFalse();
+
+        //when: 처음 사용
+        memberRepository.count();
+
+        //then
+        assertThat(beanFactory.containsSingleton("memberRepository")).isTrue();
+    }
+}
@@ -0,0 +1,58 @@
+package study.datajpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * journal 의 JPQL 과 @Query 가 시작할 때 QueryPlanCache 에 올라가는지 확인
+ * - journal 은 컨텍스트 생성 전에 작성, 잘못된 쿼리는 실패로 세고 넘어간다.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:warmup;DB_CLOSE_DELAY=-1",
+        "query-warmup.journal=build/query-warmup-test.txt",
+        "query-warmup.prime-connections=2"})
+class QueryWarmUpTest {
+
+    static final Path JOURNAL = Path.of("build/query-warmup-test.txt");
+
+    @Autowired MeterRegistry meterRegistry;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    @BeforeAll
+    static void writeJournal() throws IOException {
+        Files.createDirectories(JOURNAL.getParent());
+        Files.write(JOURNAL, List.of("select max(m.id) from Member m", "select x from NotAnEntity x"));
+    }
+
+    @Test
+    public void warmUpAtStartup() {
+        //given
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        Statistics statistics = sessionFactory.getStatistics();
+        long hits = statistics.getQueryPlanCacheHitCount();
+
+        //when: journal 쿼리, @Query 의 count 쿼리
+        sessionFactory.getQueryPlanCache().getHQLQueryPlan("select max(m.id) from Member m", false, Collections.emptyMap());
+        sessionFactory.getQueryPlanCache().getHQLQueryPlan("select count(m.username) from Member m", false, Collections.emptyMap());
+
+        //then: 이미 컴파일되어 있음
+        assertThat(statistics.getQueryPlanCacheHitCount()).isEqualTo(hits + 2);
+        assertThat(meterRegistry.get("query.warmup").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("query.warmup.queries").tag("result", "failure").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("query.warmup.queries").tag("result", "success").counter().count()).isPositive();
+    }
+}
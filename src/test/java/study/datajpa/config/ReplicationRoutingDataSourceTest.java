@@ -0,0 +1,78 @@
+package study.datajpa.config;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 메모리 H2 두 개(primary, replica)로 라우팅 확인
+ * - replica 의 replication_lag 테이블 값을 복제 지연(초)으로 사용
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "datasource.replica.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "datasource.replica.username=sa",
+        "datasource.replica.lag-query=select lag_seconds from replication_lag",
+        "datasource.replica.max-lag=5s"})
+class ReplicationRoutingDataSourceTest {
+
+    @PersistenceContext EntityManager em;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired ReplicaLagMonitor replicaLagMonitor;
+    @Autowired @Qualifier("replicaDataSource") DataSource replicaDataSource;
+
+    JdbcTemplate replica;
+
+    @BeforeEach
+    void setUp() {
+        replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("create table if not exists replication_lag (lag_seconds int)");
+        replica.update("delete from replication_lag");
+        replica.update("insert into replication_lag values (0)");
+        replicaLagMonitor.check();
+    }
+
+    @AfterEach
+    void tearDown() {
+        replica.execute("drop table replication_lag");
+    }
+
+    @Test
+    public void readOnlyTransactionUsesReplica() {
+        assertThat(connectionUrl(true)).contains("replica");
+        assertThat(connectionUrl(false)).contains("primary");
+    }
+
+    @Test
+    public void lagFallsBackToPrimary() {
+        //given 복제 지연 60초
+        replica.update("update replication_lag set lag_seconds = 60");
+
+        //when
+        replicaLagMonitor.check();
+
+        //then
+        assertThat(replicaLagMonitor.isReplicaUsable()).isFalse();
+        assertThat(connectionUrl(true)).contains("primary");
+    }
+
+    private String connectionUrl(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status -> em.unwrap(Session.class)
+                .doReturningWork(connection -> connection.getMetaData().getURL()));
+    }
+}
@@ -0,0 +1,134 @@
+package study.datajpa.controller;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /members 부하 테스트: 톰캣 스레드 풀(기존) vs 가상 스레드 (./gradlew loadTest)
+ * - 내장 서버(랜덤 포트) + 메모리 H2, 톰캣 스레드는 일부러 작게(20) 잡아서 포화 상태를 만든다.
+ * - 가상 스레드는 Java 21+ 에서만 동작하므로 그 미만에서는 건너뛴다. (loadTest 태스크는 Java 21 toolchain 으로 실행, build.gradle)
+ * - @EnabledForJreRange(min = JAVA_21) 은 JUnit 5.10+ 필요 (스프링 부트 2.7 은 5.8) -> @EnabledIf 로 확인
+ */
+@Tag("load")
+@EnabledIf("virtualThreadsSupported")
+class MemberControllerLoadTest {
+
+    private static final int CONCURRENCY = 200;
+    private static final int REQUESTS = 5_000;
+
+    @Test
+    public void platformVsVirtualThreads() throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        System.out.println("platform threads: " + platform);
+        System.out.println("virtual threads : " + virtual);
+        assertThat(platform.failures).isZero();
+        assertThat(virtual.failures).isZero();
+    }
+
+    static boolean virtualThreadsSupported() {
+        return Runtime.version().feature() >= 21;
+    }
+
+    private Result run(boolean virtualThreads) throws InterruptedException {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(DataJpaApplication.class)
+                .properties(
+                        "server.port=0",
+                        "server.tomcat.threads.max=20",
+                        "app.web.virtual-threads=" + virtualThreads,
+                        "spring.datasource.url=jdbc:h2:mem:load-" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "logging.level.org.hibernate.SQL=warn",
+                        "decorator.datasource.p6spy.enable-logging=false")
+                .run()) {
+            List<Member> members = new ArrayList<>();
+            for (int i = 0; i < 1000; i++) {
+                members.add(new Member("member" + i, i % 100));
+            }
+            context.getBean(MemberRepository.class).saveAllBatched(members, 500);
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            return load("http://localhost:" + port);
+        }
+    }
+
+    private Result load(String baseUrl) throws InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        ExecutorService clients = Executors.newFixedThreadPool(CONCURRENCY);
+        long[] latencies = new long[REQUESTS];
+        AtomicInteger nextRequest = new AtomicInteger();
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(CONCURRENCY);
+
+        long start = System.nanoTime();
+        for (int c = 0; c < CONCURRENCY; c++) {
+            clients.execute(() -> {
+                try {
+                    int i;
+                    while ((i = nextRequest.getAndIncrement()) < REQUESTS) {
+                        HttpRequest request = HttpRequest.newBuilder(
+                                URI.create(baseUrl + "/members?page=" + (i % 50) + "&size=20")).build();
+                        long requestStart = System.nanoTime();
+                        HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        latencies[i] = System.nanoTime() - requestStart;
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    }
+                } catch (IOException e) {
+                    failures.incrementAndGet();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        long elapsedNanos = System.nanoTime() - start;
+        clients.shutdown();
+
+        Arrays.sort(latencies);
+        return new Result(REQUESTS * 1_000_000_000.0 / elapsedNanos,
+                latencies[REQUESTS * 99 / 100 - 1] / 1_000_000.0, failures.get());
+    }
+
+    private static class Result {
+        private final double requestsPerSecond;
+        private final double p99Millis;
+        private final int failures;
+
+        private Result(double requestsPerSecond, double p99Millis, int failures) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.p99Millis = p99Millis;
+            this.failures = failures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%.0f req/s, p99 %.1f ms, failures %d", requestsPerSecond, p99Millis, failures);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package study.datajpa.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import study.datajpa.SqlThreads;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /members/dashboard: 세 조회를 queryExecutor 스레드에서 동시에 실행하고 비동기로 응답
+ * 잘못된 요청 값은 400 (ApiExceptionHandler)
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:controller;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=study.datajpa.SqlThreads"})
+@AutoConfigureMockMvc
+class MemberControllerTest {
+
+    @Autowired MockMvc mockMvc;
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+
+    @BeforeEach
+    void setUp() {
+        Team teamA = teamRepository.save(new Team("teamA"));
+        memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 10, teamA));
+        memberRepository.save(new Member("member3", 20, teamA));
+        SqlThreads.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void dashboard() throws Exception {
+        //when: 요청 스레드는 CompletableFuture 를 반환하고 바로 반납
+        MvcResult result = mockMvc.perform(get("/members/dashboard").param("age", "10"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        //then
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.members.content[*].username").value(containsInAnyOrder("member1", "member2")))
+                .andExpect(jsonPath("$.members.totalElements").value(2))
+                .andExpect(jsonPath("$.membersWithTeam.length()").value(3))
+                .andExpect(jsonPath("$.membersWithTeam[0].teamName").value("teamA"))
+                .andExpect(jsonPath("$.teamCount").value(1));
+
+        assertThat(SqlThreads.of("from member")).isNotEmpty().allMatch(thread -> thread.startsWith("query-"));
+        assertThat(SqlThreads.of("from team")).isNotEmpty().allMatch(thread -> thread.startsWith("query-"));
+    }
+
+    @Test
+    public void unsupportedSort() throws Exception {
+        mockMvc.perform(get("/members").param("sort", "password"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members").param("sort", "teamName,asc"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void invalidCursor() throws Exception {
+        mockMvc.perform(get("/members").param("cursor", "not a cursor"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/members").param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3));
+    }
+}
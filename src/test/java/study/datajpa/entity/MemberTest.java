@@ -76,5 +76,6 @@ public class MemberTest {
         System.out.println("findMember.updatedDate = " + findMember.getLastModifiedDate());
         System.out.println("findMember. = " + findMember.getCreatedBy());
         System.out.println("findMember.updatedDate = " + findMember.getLastModifiedBy());
+        assertThat(findMember.getLastModifiedDate()).isAfter(findMember.getCreatedDate()); //기본: 저장/수정할 때마다 현재 시각
     }
 }
\ No newline at end of file
@@ -0,0 +1,50 @@
+package study.datajpa.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 기준 0ms: 모든 쿼리를 느린 쿼리로 기록
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:statistics;DB_CLOSE_DELAY=-1",
+        "monitoring.slow-query-threshold=0ms"})
+class HibernateStatisticsEndpointTest {
+
+    @Autowired HibernateStatisticsEndpoint endpoint;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void statisticsAndSlowQueries() {
+        //given
+        endpoint.clear();
+        memberRepository.save(new Member("slowMember", 10));
+
+        //when
+        memberRepository.findUser("slowMember", 10);
+        Map<String, Object> statistics = endpoint.statistics();
+
+        //then
+        List<Map<String, Object>> queries = (List<Map<String, Object>>) statistics.get("queries");
+        assertThat(queries).extracting(query -> query.get("query"))
+                .anySatisfy(query -> assertThat((String) query).contains("m.username= :username"));
+
+        List<SlowQueryLog.SlowQuery> slowQueries = (List<SlowQueryLog.SlowQuery>) statistics.get("slowQueries");
+        assertThat(slowQueries).anySatisfy(slowQuery -> {
+            assertThat(slowQuery.getQuery()).contains("m.username= :username");
+            assertThat(slowQuery.getRepositoryMethod()).isEqualTo("MemberRepository.findUser");
+            assertThat(slowQuery.getParameterTypes()).containsExactly("String", "Integer");
+            assertThat(slowQuery.getParameters()).isNull(); //기본: 값은 기록 X
+        });
+        assertThat((Map<String, Object>) statistics.get("entities")).containsKey(Member.class.getName());
+    }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.repository.MemberRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 느린 쿼리 인자 값 기록 (monitoring.slow-query-capture-parameters): 길이 제한, 지정한 파라미터는 가림
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:slow-query-parameters;DB_CLOSE_DELAY=-1",
+        "monitoring.slow-query-threshold=0ms",
+        "monitoring.slow-query-capture-parameters=true",
+        "monitoring.slow-query-parameter-max-length=5",
+        "monitoring.slow-query-masked-parameters=age"})
+class SlowQueryParametersTest {
+
+    @Autowired SlowQueryLog slowQueryLog;
+    @Autowired MemberRepository memberRepository;
+
+    @Test
+    public void captureTruncatedAndMaskedParameters() {
+        //given
+        slowQueryLog.clear();
+
+        //when
+        memberRepository.findUser("slowParameterMember", 10);
+
+        //then
+        assertThat(slowQueryLog.getQueries()).anySatisfy(slowQuery -> {
+            assertThat(slowQuery.getRepositoryMethod()).isEqualTo("MemberRepository.findUser");
+            assertThat(slowQuery.getParameters()).containsExactly("username=slowP...(19 chars)", "age=****");
+        });
+    }
+}
@@ -0,0 +1,42 @@
+package study.datajpa.outbox;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 아웃박스는 기본 꺼짐 (outbox.enabled)
+ */
+@SpringBootTest
+class OutboxDisabledTest {
+
+    @Autowired ObjectProvider<Outbox> outbox;
+    @Autowired MemberRepository memberRepository;
+    @Autowired JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void noRecordsByDefault() {
+        //given
+        int before = countRecords();
+
+        //when
+        Member member = memberRepository.save(new Member("noOutboxMember", 10));
+        memberRepository.deleteAllInBatch(List.of(member));
+
+        //then: 엔티티 리스너, 벌크 연산 모두 기록하지 않는다
+        assertThat(outbox.getIfAvailable()).isNull();
+        assertThat(countRecords()).isEqualTo(before);
+    }
+
+    private int countRecords() {
+        return jdbcTemplate.queryForObject("select count(*) from outbox_event", Integer.class);
+    }
+}
@@ -0,0 +1,93 @@
+package study.datajpa.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.OutboxEvent.ChangeType;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * relay 는 테스트에서 직접 호출 (주기 relay 는 1시간으로 미룸), sink 는 메모리 큐
+ */
+@SpringBootTest(properties = {
+        "outbox.enabled=true",
+        "outbox.relay.interval=1h",
+        "outbox.sink.type=queue",
+        "outbox.sink.queue-capacity=10000"})
+class OutboxTest {
+
+    @Autowired OutboxRelay outboxRelay;
+    @Autowired OutboxSink outboxSink;
+    @Autowired MemberRepository memberRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    QueueOutboxSink queue;
+
+    @BeforeEach
+    void setUp() {
+        queue = (QueueOutboxSink) outboxSink;
+        outboxRelay.relay(); //다른 테스트에서 남은 기록
+        queue.drain();
+    }
+
+    @Test
+    public void relayChangesInOrder() {
+        //given
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        Member member = memberRepository.save(new Member("outboxMember", 10));
+        tx.executeWithoutResult(status -> memberRepository.findById(member.getId()).get().setUsername("outboxMember2"));
+        tx.executeWithoutResult(status -> memberRepository.bulkAgePlus(200)); //대상 없음
+        memberRepository.deleteById(member.getId());
+
+        //롤백되면 기록도 남지 않는다
+        tx.executeWithoutResult(status -> {
+            memberRepository.save(new Member("outboxRollback", 10));
+            status.setRollbackOnly();
+        });
+
+        //when
+        int relayed = outboxRelay.relay();
+
+        //then
+        List<OutboxRecord> records = queue.drain();
+        assertThat(relayed).isEqualTo(4);
+        assertThat(records)
+                .extracting("aggregateType", "aggregateId", "changeType")
+                .containsExactly(
+                        tuple("Member", member.getId(), ChangeType.CREATED),
+                        tuple("Member", member.getId(), ChangeType.UPDATED),
+                        tuple("Member", null, ChangeType.BULK_UPDATED),
+                        tuple("Member", member.getId(), ChangeType.DELETED));
+        assertThat(records.get(1).getPayload()).contains("\"username\":\"outboxMember2\"");
+        assertThat(records.get(2).getPayload()).contains("\"method\":\"MemberRepository.bulkAgePlus\"", "\"rows\":0");
+
+        //내보낸 기록은 삭제됨
+        assertThat(outboxRelay.relay()).isZero();
+    }
+
+    @Test
+    public void largeBulkPayload() {
+        //given: id 1000개 (JSON 4000자 이상)
+        List<Long> ids = LongStream.range(1_000_000, 1_001_000).boxed().collect(Collectors.toList());
+
+        //when
+        memberRepository.deleteAllByIdInBatch(ids);
+        outboxRelay.relay();
+
+        //then
+        List<OutboxRecord> records = queue.drain();
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getPayload()).hasSizeGreaterThan(4000).contains("1000999");
+    }
+}
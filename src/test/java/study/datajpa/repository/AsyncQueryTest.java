@@ -0,0 +1,104 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import study.datajpa.SqlThreads;
+import study.datajpa.dto.MemberDashboardDto;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 비동기 조회 (@Async("queryExecutor"))
+ * - queryExecutor 스레드의 각자 트랜잭션에서 실행되므로 테스트 트랜잭션(@Transactional)을 쓰지 않는다.
+ * - 실행 스레드는 SqlThreads(StatementInspector)로 확인
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:async;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector=study.datajpa.SqlThreads"})
+class AsyncQueryTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+
+    @BeforeEach
+    void setUp() {
+        Team teamA = teamRepository.save(new Team("teamA"));
+        Team teamB = teamRepository.save(new Team("teamB"));
+        memberRepository.save(new Member("member1", 10, teamA));
+        memberRepository.save(new Member("member2", 10, teamB));
+        memberRepository.save(new Member("member3", 20, teamA));
+        SqlThreads.clear();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch();
+        teamRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void asyncQueries() {
+        //when
+        CompletableFuture<Page<Member>> members =
+                memberRepository.findAsyncByAge(10, PageRequest.of(0, 5, Sort.by("username")));
+        CompletableFuture<List<MemberDto>> membersWithTeam = memberRepository.findMemberDtoAsync();
+        CompletableFuture<Long> teamCount = teamRepository.countAsync();
+
+        //then
+        assertThat(members.join().getContent()).extracting(Member::getUsername).containsExactly("member1", "member2");
+        assertThat(members.join().getTotalElements()).isEqualTo(2);
+        assertThat(membersWithTeam.join()).extracting(MemberDto::getTeamName)
+                .containsExactlyInAnyOrder("teamA", "teamB", "teamA");
+        assertThat(teamCount.join()).isEqualTo(2);
+
+        //호출 스레드가 아니라 queryExecutor 스레드에서 실행
+        assertThat(SqlThreads.of("from member")).isNotEmpty().allMatch(thread -> thread.startsWith("query-"));
+        assertThat(SqlThreads.of("from team")).isNotEmpty().allMatch(thread -> thread.startsWith("query-"));
+    }
+
+    @Test
+    public void combine() {
+        //when
+        MemberDashboardDto dashboard = MemberDashboardDto.combine(
+                memberRepository.findAsyncByAge(10, PageRequest.of(0, 5, Sort.by("username"))),
+                memberRepository.findMemberDtoAsync(),
+                teamRepository.countAsync()).join();
+
+        //then
+        assertThat(dashboard.getMembers().getContent()).extracting(MemberDto::getUsername)
+                .containsExactly("member1", "member2");
+        assertThat(dashboard.getMembersWithTeam()).hasSize(3);
+        assertThat(dashboard.getTeamCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void combineFailsIfAnyQueryFails() {
+        //given
+        CompletableFuture<Long> failed = CompletableFuture.failedFuture(new IllegalStateException("teamCount"));
+
+        //when
+        CompletableFuture<MemberDashboardDto> dashboard = MemberDashboardDto.combine(
+                CompletableFuture.completedFuture(Page.empty()),
+                memberRepository.findMemberDtoAsync(),
+                failed);
+
+        //then
+        assertThatThrownBy(dashboard::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,63 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * flush 는 테스트에서 직접 호출 (주기 flush 는 1시간으로 미룸)
+ */
+@SpringBootTest(properties = "member.age-coalescer.flush-interval=1h")
+class MemberAgeCoalescerTest {
+
+    @Autowired MemberAgeCoalescer memberAgeCoalescer;
+    @Autowired MemberRepository memberRepository;
+
+    List<Member> members = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(members);
+    }
+
+    @Test
+    public void coalesceIncrements() throws Exception {
+        //given
+        Member hot = memberRepository.save(new Member("coalesceHot", 0));
+        Member cold = memberRepository.save(new Member("coalesceCold", 0));
+        members.add(hot);
+        members.add(cold);
+        memberRepository.findById(hot.getId()); //2차 캐시에 올려둠
+
+        //when: 8 스레드에서 1000번 증가
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int i = 0; i < 1000; i++) {
+            executor.execute(() -> memberAgeCoalescer.increaseAge(hot.getId(), 1));
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        memberAgeCoalescer.increaseAge(cold.getId(), 5);
+
+        assertThat(memberAgeCoalescer.pendingDelta(hot.getId())).isEqualTo(1000);
+        int flushedRows = memberAgeCoalescer.flush();
+
+        //then: 증가 1001번 -> UPDATE 2행
+        assertThat(flushedRows).isEqualTo(2);
+        assertThat(memberAgeCoalescer.pendingDelta(hot.getId())).isZero();
+        assertThat(memberRepository.findById(hot.getId()).get().getAge()).isEqualTo(1000); //2차 캐시 제거됨
+        assertThat(memberRepository.findById(cold.getId()).get().getAge()).isEqualTo(5);
+
+        //변화가 없으면 UPDATE 하지 않는다
+        assertThat(memberAgeCoalescer.flush()).isZero();
+    }
+}
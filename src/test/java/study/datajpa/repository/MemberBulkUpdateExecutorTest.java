@@ -0,0 +1,99 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.support.CountedPage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 청크마다 별도 트랜잭션(다른 스레드)에서 실행되므로 테스트 트랜잭션(@Transactional)을 쓰지 않는다.
+ */
+@SpringBootTest
+class MemberBulkUpdateExecutorTest {
+
+    @Autowired MemberBulkUpdateExecutor memberBulkUpdateExecutor;
+    @Autowired MemberRepository memberRepository;
+
+    List<Member> members = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(members);
+    }
+
+    @Test
+    public void bulkAgePlus() throws Exception {
+        //given
+        for (int i = 0; i < 10; i++) {
+            members.add(new Member("bulk" + i, 1000 + i));
+        }
+        memberRepository.saveAll(members);
+
+        //when
+        List<MemberBulkUpdateExecutor.ChunkProgress> progresses = new CopyOnWriteArrayList<>();
+        MemberBulkUpdateExecutor.BulkUpdateResult result = memberBulkUpdateExecutor.bulkAgePlus(1005, 3, progresses::add);
+
+        //then
+        assertThat(result.getUpdatedRows()).isEqualTo(5);
+        assertThat(progresses).hasSize(result.getChunks());
+        assertThat(progresses).allMatch(progress -> progress.getUpdatedRows() <= 3); //청크 크기 이하만 수정
+        assertThat(memberRepository.findById(members.get(9).getId()).get().getAge()).isEqualTo(1010);
+        assertThat(memberRepository.findById(members.get(4).getId()).get().getAge()).isEqualTo(1004);
+        System.out.println("rows/sec = " + result.getRowsPerSecond());
+    }
+
+    @Test
+    public void stopOnFirstFailure() throws Exception {
+        //given: 청크 크기 1 -> 청크 20개 이상
+        for (int i = 0; i < 20; i++) {
+            members.add(new Member("bulkFail" + i, 4000));
+        }
+        memberRepository.saveAll(members);
+
+        //when: 청크가 실패하면 (리스너 예외)
+        AtomicInteger executedChunks = new AtomicInteger();
+        assertThatThrownBy(() -> memberBulkUpdateExecutor.bulkAgePlus(4000, 1, progress -> {
+            executedChunks.incrementAndGet();
+            throw new IllegalStateException("chunk failed");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("chunk failed");
+
+        //then: 남은 청크는 실행하지 않는다 (이미 제출된 parallelism(4) 개까지만)
+        assertThat(executedChunks.get()).isBetween(1, 4);
+        List<Long> ids = members.stream().map(Member::getId).collect(Collectors.toList());
+        assertThat(memberRepository.findAllById(ids)).filteredOn(member -> member.getAge() == 4001).hasSizeLessThanOrEqualTo(4);
+    }
+
+    @Test
+    public void bulkUpdateInvalidatesCachedCount() throws Exception {
+        //given: 3000살 3명, 2999살 2명
+        for (int i = 0; i < 5; i++) {
+            members.add(new Member("bulkCount" + i, i < 3 ? 3000 : 2999));
+        }
+        memberRepository.saveAll(members);
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        memberRepository.findByAge(3000, pageRequest); //count 캐시
+        assertThat(((CountedPage<Member>) memberRepository.findByAge(3000, pageRequest.next())).isTotalExact()).isFalse();
+
+        //when: 리포지토리 프록시를 거치지 않는 청크 벌크 수정 (3000 -> 3001, 2999 -> 3000)
+        memberBulkUpdateExecutor.bulkAgePlus(2999, 2, progress -> {
+        });
+
+        //then: 청크 트랜잭션이 커밋된 후 캐시가 비워져서 다시 센다
+        Page<Member> page = memberRepository.findByAge(3000, pageRequest);
+        assertThat(((CountedPage<Member>) page).isTotalExact()).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+}
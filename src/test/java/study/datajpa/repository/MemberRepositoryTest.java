@@ -1,25 +1,37 @@
 package study.datajpa.repository;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import org.assertj.core.api.Assertions;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.transaction.annotation.Transactional;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.monitoring.QueryCountScope;
+import study.datajpa.repository.support.CompiledProjection;
+import study.datajpa.repository.support.CountedPage;
+import study.datajpa.repository.support.DataJpaRepositoryFactory;
+import study.datajpa.repository.support.FetchPlan;
 
+import javax.persistence.Cache;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -28,6 +40,7 @@ public class MemberRepositoryTest {
 
     @Autowired MemberRepository memberRepository;
     @Autowired TeamRepository teamRepository;
+    @Autowired ObjectProvider<MeterRegistry> meterRegistry;
     @PersistenceContext
     EntityManager em; //같은 트랜잭션 = 같은 엔티티 매니저 사용
 
@@ -195,6 +208,126 @@ public class MemberRepositoryTest {
         assertThat(page.hasNext()).isTrue(); //다음 페이지가 있는가?
     }
 
+    //count 쿼리 캐시 (@CachedCount)
+    @Test
+    public void cachedCount() throws Exception {
+        //given
+        memberRepository.save(new Member("member1", 12));
+        memberRepository.save(new Member("member2", 12));
+        memberRepository.save(new Member("member3", 12));
+        memberRepository.save(new Member("member4", 12));
+        memberRepository.save(new Member("member5", 12));
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by("username"));
+
+        //when
+        Page<Member> first = memberRepository.findByAge(12, pageRequest); //count 쿼리 실행
+        Page<Member> second = memberRepository.findByAge(12, pageRequest.next()); //캐시된 개수 사용
+
+        //then
+        assertThat(((CountedPage<Member>) first).isTotalExact()).isTrue();
+        assertThat(((CountedPage<Member>) second).isTotalExact()).isFalse();
+        assertThat(second.getTotalElements()).isEqualTo(5);
+        assertThat(second.getContent()).extracting("username").containsExactly("member3", "member4");
+
+        //저장하면 캐시 무효화
+        memberRepository.save(new Member("member6", 12));
+        Page<Member> third = memberRepository.findByAge(12, pageRequest.next());
+        assertThat(((CountedPage<Member>) third).isTotalExact()).isTrue();
+        assertThat(third.getTotalElements()).isEqualTo(6);
+    }
+
+    @Test
+    public void memberDtoPage() throws Exception {
+        //given
+        Team team = new Team("dtoTeam");
+        teamRepository.save(team);
+        memberRepository.save(new Member("dtoMember1", 10, team));
+        memberRepository.save(new Member("dtoMember2", 10));
+        em.flush(); //JdbcTemplate 은 영속성 컨텍스트를 거치지 않으므로 먼저 DB 에 반영
+
+        PageRequest pageRequest = PageRequest.of(0, 3, Sort.by(Sort.Direction.DESC, "username"));
+
+        //when
+        Page<MemberDto> dtoPage = memberRepository.findMemberDtoPage(pageRequest);
+        Page<MemberDto> entityPage = memberRepository.findAll(pageRequest).map(MemberDto::new);
+
+        //then: 엔티티 조회 후 변환한 결과와 같다 (teamName 은 DTO 조회만 채움)
+        assertThat(dtoPage.getContent()).extracting("id")
+                .containsExactlyElementsOf(entityPage.map(MemberDto::getId));
+        assertThat(dtoPage.getContent()).extracting("username")
+                .containsExactlyElementsOf(entityPage.map(MemberDto::getUsername));
+        assertThat(dtoPage.getTotalElements()).isEqualTo(entityPage.getTotalElements());
+        assertThat(memberRepository.findMemberDtoPage(PageRequest.of(0, 1000, Sort.by("id"))).getContent())
+                .filteredOn(dto -> dto.getUsername().equals("dtoMember1"))
+                .extracting("teamName").containsOnly("dtoTeam");
+    }
+
+    //키셋(커서) 페이징
+    @Test
+    public void keysetPage() throws Exception {
+        //given
+        memberRepository.save(new Member("member1", 33));
+        memberRepository.save(new Member("member2", 33));
+        memberRepository.save(new Member("member3", 33));
+        memberRepository.save(new Member("member4", 33));
+        memberRepository.save(new Member("member5", 33));
+
+        //when
+        Window<Member> first = memberRepository.findByAgeAfter(33, null, 3);
+        Cursor next = Cursor.decode(first.getNextCursor()); //토큰 왕복
+        Window<Member> second = memberRepository.findByAgeAfter(33, next, 3);
+
+        //then
+        assertThat(first.getContent()).extracting("username").containsExactly("member1", "member2", "member3");
+        assertThat(first.hasNext()).isTrue();
+        assertThat(second.getContent()).extracting("username").containsExactly("member4", "member5");
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    public void keysetPageWithNullUsername() throws Exception {
+        //given: username 이 null 인 회원은 맨 앞
+        Member noName1 = memberRepository.save(new Member(null, 34));
+        Member noName2 = memberRepository.save(new Member(null, 34));
+        memberRepository.save(new Member("member1", 34));
+        memberRepository.save(new Member("null", 34));
+
+        //when: 한 건씩 끝까지
+        List<Member> members = new ArrayList<>();
+        Cursor cursor = null;
+        do {
+            Window<Member> window = memberRepository.findByAgeAfter(34, cursor, 1);
+            members.addAll(window.getContent());
+            cursor = Cursor.decode(window.getNextCursor());
+        } while (cursor != null);
+
+        //then: null 과 문자열 "null" 을 구분
+        assertThat(members).extracting("username").containsExactly(null, null, "member1", "null");
+        assertThat(members.subList(0, 2)).containsExactly(noName1, noName2);
+        assertThat(Cursor.decode(Cursor.of(noName1).encode()).getUsername()).isNull();
+    }
+
+    @Test
+    public void invalidCursor() throws Exception {
+        assertThatThrownBy(() -> Cursor.decode("not a cursor")).isInstanceOf(InvalidCursorException.class);
+        assertThatThrownBy(() -> Cursor.decode("YWJj")).isInstanceOf(InvalidCursorException.class); //"abc"
+    }
+
+    @Test
+    public void exportAll() throws Exception {
+        //given
+        memberRepository.save(new Member("export1", 10));
+        memberRepository.save(new Member("export2", 10));
+        memberRepository.save(new Member("export3", 10));
+
+        //when
+        List<String> usernames = new ArrayList<>();
+        memberRepository.exportAll(2, 2, member -> usernames.add(member.getUsername()));
+
+        //then
+        assertThat(usernames).contains("export1", "export2", "export3");
+    }
+
     @Test
     public void bulkUpdate() throws Exception {
         //given
@@ -218,6 +351,24 @@ public class MemberRepositoryTest {
         assertThat(resultCount).isEqualTo(3);
     }
 
+    @Test
+    public void auditing() throws Exception {
+        //given
+        Member member1 = memberRepository.save(new Member("auditMember1", 7000));
+        em.flush();
+        assertThat(member1.getCreatedBy()).isNotNull();
+        assertThat(member1.getCreatedDate()).isNotNull();
+
+        //when: 벌크 연산도 수정일/수정자 입력 (같은 트랜잭션이면 같은 값은 auditing.cached, CachedAuditingTest)
+        memberRepository.bulkAgePlus(7000);
+
+        //then
+        Member findMember = memberRepository.findById(member1.getId()).get();
+        assertThat(findMember.getAge()).isEqualTo(7001);
+        assertThat(findMember.getLastModifiedBy()).isNotNull();
+        assertThat(findMember.getLastModifiedDate()).isAfterOrEqualTo(findMember.getCreatedDate());
+    }
+
     @Test
     public void findMemberLazy() throws Exception {
         //given
@@ -246,6 +397,91 @@ public class MemberRepositoryTest {
         }
     }
 
+    @Test
+    public void secondLevelCacheEvictedByBulkUpdate() throws Exception {
+        //given
+        Team team = teamRepository.save(new Team("teamA"));
+        Member member = memberRepository.save(new Member("member1", 30, team));
+        em.flush();
+        em.clear();
+
+        Cache cache = em.getEntityManagerFactory().getCache();
+        memberRepository.findById(member.getId()); //DB 조회 -> 2차 캐시에 저장
+        assertThat(cache.contains(Member.class, member.getId())).isTrue();
+
+        //when
+        memberRepository.bulkAgePlus(30);
+
+        //then 벌크 연산은 2차 캐시를 거치지 않으므로 Hibernate 가 Member region 을 비운다
+        assertThat(cache.contains(Member.class, member.getId())).isFalse();
+        assertThat(memberRepository.findById(member.getId()).get().getAge()).isEqualTo(31);
+    }
+
+    //SQL 실행 횟수 검증 (N+1 이 생기면 테스트 실패)
+    //default_batch_fetch_size: 지연 로딩도 IN (...) 으로 한 번에 조회
+    @Test
+    public void queryCount() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+        memberRepository.save(new Member("count1", 10, teamA));
+        memberRepository.save(new Member("count2", 20, teamB));
+        em.flush();
+        em.clear();
+
+        try (QueryCountScope scope = QueryCountScope.start()) {
+            //when
+            List<Member> members = memberRepository.findByNames(Arrays.asList("count1", "count2"));
+            for (Member member : members) {
+                member.getTeam().getName(); //지연 로딩
+            }
+
+            //then member 1번 + team 1번 (N번 X)
+            assertThat(scope.getSelectCount()).isEqualTo(2);
+            assertThat(scope.getMaxRepeatedSelectCount()).isEqualTo(1);
+            assertThat(scope.findNPlusOneSuspect(2)).isEmpty();
+        }
+
+        em.clear();
+        try (QueryCountScope scope = QueryCountScope.start()) {
+            //when fetch join(엔티티 그래프)
+            List<Member> members = memberRepository.findEntityGraphByUsername("count1");
+            members.get(0).getTeam().getName();
+
+            //then
+            assertThat(scope.getSelectCount()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void batchFetchTeamMembers() throws Exception {
+        //given
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        teamRepository.save(teamA);
+        teamRepository.save(teamB);
+        memberRepository.save(new Member("batch1", 10, teamA));
+        memberRepository.save(new Member("batch2", 20, teamA));
+        memberRepository.save(new Member("batch3", 30, teamB));
+        em.flush();
+        em.clear();
+
+        try (QueryCountScope scope = QueryCountScope.start()) {
+            //when
+            List<Team> teams = teamRepository.findAllById(Arrays.asList(teamA.getId(), teamB.getId()));
+            int memberCount = 0;
+            for (Team team : teams) {
+                memberCount += team.getMembers().size(); //컬렉션 지연 로딩
+            }
+
+            //then team 1번 + members 1번
+            assertThat(memberCount).isEqualTo(3);
+            assertThat(scope.getSelectCount()).isEqualTo(2);
+        }
+    }
+
     @Test
     public void queryHint() throws Exception {
         //given
@@ -305,6 +541,91 @@ public class MemberRepositoryTest {
         Assertions.assertThat(result4.size()).isEqualTo(1);
     }
 
+    @Test
+    public void compiledProjections() {
+        //given
+        Team team = new Team("projectionTeam");
+        em.persist(team);
+        em.persist(new Member("projectionMember", 0, team));
+        em.flush();
+        em.clear();
+
+        //when
+        List<UsernameOnly> closed = memberRepository.findProjectionsByUsername("projectionMember");
+        List<NestedClosedProjection> nested = memberRepository.findProjections1ByUsername("projectionMember");
+
+        //then: 닫힌 프로젝션은 생성된 클래스, 중첩 프로젝션은 기존 프록시
+        assertThat(closed).hasSize(1);
+        assertThat(closed.get(0)).isInstanceOf(CompiledProjection.class);
+        assertThat(closed.get(0).getUsername()).isEqualTo("projectionMember");
+
+        assertThat(nested).hasSize(1);
+        assertThat(nested.get(0)).isNotInstanceOf(CompiledProjection.class);
+        assertThat(nested.get(0).getTeam().getName()).isEqualTo("projectionTeam");
+    }
+
+    @Test
+    public void fetchPlan() {
+        //given
+        Team team = new Team("fetchPlanTeam");
+        em.persist(team);
+        em.persist(new Member("fetchPlan1", 77, team));
+        em.persist(new Member("fetchPlan2", 77, team));
+        em.flush();
+        em.clear();
+        FetchPlan<Member> withTeam = FetchPlan.of(Member.class).with("team");
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("username"));
+
+        //when
+        List<Member> lazy = memberRepository.findByNames(List.of("fetchPlan1"), null);
+        em.clear();
+        List<Member> fetched = memberRepository.findByNames(List.of("fetchPlan1"), withTeam);
+        em.clear();
+        Page<Member> page = memberRepository.findByAge(77, pageRequest, withTeam);
+
+        //then: 지정한 연관관계만 함께 조회 (count 쿼리는 그대로)
+        assertThat(Hibernate.isInitialized(lazy.get(0).getTeam())).isFalse();
+        assertThat(Hibernate.isInitialized(fetched.get(0).getTeam())).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).allMatch(member -> Hibernate.isInitialized(member.getTeam()));
+        assertThat(page.getContent().get(0).getTeam().getName()).isEqualTo("fetchPlanTeam");
+    }
+
+    @Test
+    public void fetchPlanOnBaseMethods() {
+        //given
+        Team team = new Team("fetchPlanBaseTeam");
+        em.persist(team);
+        Member member = new Member("fetchPlanBase", 78, team);
+        em.persist(member);
+        em.flush();
+        em.clear();
+        FetchPlan<Member> withTeam = FetchPlan.of(Member.class).with("team");
+
+        //when: 메서드마다 오버로드를 만들지 않아도 공통 구현(DataJpaRepository)으로 조회
+        Member found = memberRepository.findById(member.getId(), withTeam).get();
+        em.clear();
+        List<Member> all = memberRepository.findAll(withTeam);
+
+        //then
+        assertThat(Hibernate.isInitialized(found.getTeam())).isTrue();
+        assertThat(all).filteredOn(each -> each.getId().equals(member.getId()))
+                .singleElement().satisfies(each -> assertThat(Hibernate.isInitialized(each.getTeam())).isTrue());
+    }
+
+    @Test
+    public void fetchPlanRejectedOnScalarQuery() {
+        //엔티티가 아닌 결과(List<String>)에 FetchPlan 은 리포지토리 생성 시 오류
+        assertThatThrownBy(() -> new DataJpaRepositoryFactory(em, meterRegistry)
+                .getRepository(ScalarFetchPlanRepository.class))
+                .hasStackTraceContaining("FetchPlan parameter is only supported");
+    }
+
+    interface ScalarFetchPlanRepository extends org.springframework.data.repository.Repository<Member, Long> {
+        @Query("select m.username from Member m")
+        List<String> findUsernames(FetchPlan<Member> fetchPlan);
+    }
+
     @Test
     public void nativeQuery() {
         //given
@@ -330,4 +651,46 @@ public class MemberRepositoryTest {
         }
 
     }
+
+    /**
+     * 대량 저장 벤치마크: saveAll vs saveAllBatched (rows/sec)
+     * - 데이터가 많아서 이 테스트만 롤백
+     */
+    @Test
+    @Rollback
+    public void saveAllBatched() {
+        //given
+        int count = 5_000;
+        List<Member> forSaveAll = createMembers("saveAll", count);
+        List<Member> forBatched = createMembers("batched", count);
+
+        //when
+        long start = System.nanoTime();
+        memberRepository.saveAll(forSaveAll);
+        em.flush();
+        em.clear();
+        long saveAllNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int savedCount = memberRepository.saveAllBatched(forBatched, 500);
+        long batchedNanos = System.nanoTime() - start;
+
+        //then
+        assertThat(savedCount).isEqualTo(count);
+        assertThat(forBatched).allMatch(member -> member.getId() != null);
+        System.out.println("saveAll        rows/sec = " + rowsPerSecond(count, saveAllNanos));
+        System.out.println("saveAllBatched rows/sec = " + rowsPerSecond(count, batchedNanos));
+    }
+
+    private List<Member> createMembers(String prefix, int count) {
+        List<Member> members = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            members.add(new Member(prefix + i, i % 100));
+        }
+        return members;
+    }
+
+    private long rowsPerSecond(int rows, long nanos) {
+        return rows * 1_000_000_000L / Math.max(nanos, 1);
+    }
 }
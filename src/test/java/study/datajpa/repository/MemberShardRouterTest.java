@@ -0,0 +1,212 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.PropertyReferenceException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import study.datajpa.config.Shards;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.support.ShardContext;
+import study.datajpa.service.MemberService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 회원 샤딩: H2 메모리 DB 3개를 샤드로 사용
+ * - 저장된 샤드는 라우팅 DataSource 를 거치지 않고 샤드 DataSource 로 직접 확인
+ */
+@SpringBootTest(properties = {
+        "datasource.sharding.shards[0].url=jdbc:h2:mem:shard0;DB_CLOSE_DELAY=-1",
+        "datasource.sharding.shards[0].username=sa",
+        "datasource.sharding.shards[1].url=jdbc:h2:mem:shard1;DB_CLOSE_DELAY=-1",
+        "datasource.sharding.shards[1].username=sa",
+        "datasource.sharding.shards[2].url=jdbc:h2:mem:shard2;DB_CLOSE_DELAY=-1",
+        "datasource.sharding.shards[2].username=sa"})
+class MemberShardRouterTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired Shards shards;
+    @Autowired MemberService memberService;
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(); //모든 샤드
+        teamRepository.deleteAllInBatch();
+    }
+
+    @Test
+    public void routeAndScatterGather() {
+        //given
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            members.add(new Member("member" + i, i % 3));
+        }
+        memberRepository.saveAll(members);
+        Member single = memberRepository.save(new Member("single", 1));
+        members.add(single);
+
+        //then: id 가 가리키는 샤드에만 저장되고, 샤드를 돌아가며 배정
+        for (Member member : members) {
+            assertThat(countOn(shards.shardOf(member.getId()), member.getId())).isEqualTo(1);
+        }
+        for (int shard = 0; shard < shards.count(); shard++) {
+            assertThat(countOn(shard, null)).isBetween(10, 11);
+        }
+
+        //한 샤드 조회
+        Member sample = members.get(7);
+        assertThat(memberRepository.findById(sample.getId())).get()
+                .extracting(Member::getUsername).isEqualTo("member7");
+        assertThat(memberRepository.findMemberByUsername("member7").getId()).isEqualTo(sample.getId());
+
+        //모든 샤드 조회 후 정렬 순서대로 병합
+        Page<Member> page = memberRepository.findByAge(1, PageRequest.of(1, 4, Sort.by("username")));
+        List<String> expected = members.stream()
+                .filter(member -> member.getAge() == 1)
+                .map(Member::getUsername)
+                .sorted()
+                .skip(4)
+                .limit(4)
+                .collect(Collectors.toList());
+        assertThat(page.getContent()).extracting(Member::getUsername).containsExactlyElementsOf(expected);
+        assertThat(page.getTotalElements()).isEqualTo(11);
+        assertThat(memberRepository.count()).isEqualTo(31);
+    }
+
+    @Test
+    public void findByUsernameAfterRename() {
+        //given
+        Member member = memberRepository.save(new Member("beforeShardRename", 10));
+        assertThat(memberRepository.findMemberByUsername("beforeShardRename")).isNotNull();
+
+        //when: username 이 바뀌어도 샤드는 id 로 정해지므로 그대로
+        member.setUsername("afterShardRename");
+        memberRepository.save(member);
+
+        //then: username 조회는 모든 샤드에서
+        assertThat(memberRepository.findMemberByUsername("beforeShardRename")).isNull();
+        assertThat(memberRepository.findMemberByUsername("afterShardRename").getId()).isEqualTo(member.getId());
+        assertThat(countOn(shards.shardOf(member.getId()), member.getId())).isEqualTo(1);
+    }
+
+    @Test
+    public void idFollowsShardOutsideRouter() {
+        //when: 호출하는 쪽에서 샤드를 지정하면 라우터는 그대로 실행, id 는 생성기가 그 샤드에 맞게 할당
+        Member member = ShardContext.execute(2, () -> memberRepository.save(new Member("direct", 5)));
+
+        //then
+        assertThat(shards.shardOf(member.getId())).isEqualTo(2);
+        assertThat(countOn(2, member.getId())).isEqualTo(1);
+        assertThat(memberRepository.findById(member.getId())).isPresent();
+    }
+
+    @Test
+    public void membersFollowTheirTeam() {
+        //given: 팀은 샤드를 돌아가며 배정
+        List<Team> teams = teamRepository.saveAll(List.of(new Team("teamA"), new Team("teamB"), new Team("teamC")));
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 9; i++) {
+            members.add(new Member("teamMember" + i, 20, teams.get(i % teams.size())));
+        }
+
+        //when
+        memberRepository.saveAll(members); //팀이 없는 샤드에 저장되면 외래 키 오류
+
+        //then: 회원은 팀과 같은 샤드
+        assertThat(teams.stream().map(team -> shards.shardOf(team.getId())).distinct()).hasSize(3);
+        for (Member member : members) {
+            assertThat(shards.shardOf(member.getId())).isEqualTo(shards.shardOf(member.getTeam().getId()));
+            assertThat(countOn(shards.shardOf(member.getId()), member.getId())).isEqualTo(1);
+        }
+
+        //팀 조인 조회도 샤드마다 실행해서 합친다
+        assertThat(memberRepository.findMemberDto()).extracting(MemberDto::getTeamName)
+                .hasSize(9).containsOnly("teamA", "teamB", "teamC");
+        assertThat(memberRepository.findMemberEntityGraph()).extracting(found -> found.getTeam().getName())
+                .hasSize(9).containsOnly("teamA", "teamB", "teamC");
+        assertThat(teamRepository.findById(teams.get(1).getId())).get().extracting(Team::getName).isEqualTo("teamB");
+        assertThat(teamRepository.countAsync().join()).isEqualTo(3);
+
+        //다른 샤드의 팀으로 바꿀 수 없다
+        Member member = members.get(0);
+        member.changeTeam(teams.get(1));
+        assertThatThrownBy(() -> memberRepository.save(member)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void customMethodsOnAllShards() {
+        //given: saveAllBatched 도 샤드별로 나눠서 저장
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            members.add(new Member(String.format("custom%02d", i), i % 2));
+        }
+        assertThat(memberRepository.saveAllBatched(members, 5)).isEqualTo(12);
+        for (int shard = 0; shard < shards.count(); shard++) {
+            assertThat(countOn(shard, null)).isEqualTo(4);
+        }
+
+        //when, then: 커스텀 조회도 모든 샤드에서
+        assertThat(memberRepository.findMemberCustom()).hasSize(12);
+
+        Page<MemberDto> page = memberRepository.findMemberDtoPage(PageRequest.of(1, 5, Sort.by("username")));
+        assertThat(page.getTotalElements()).isEqualTo(12);
+        assertThat(page.getContent()).extracting(MemberDto::getUsername)
+                .containsExactly("custom05", "custom06", "custom07", "custom08", "custom09");
+        assertThatThrownBy(() -> memberRepository.findMemberDtoPage(PageRequest.of(0, 5, Sort.by("age"))))
+                .isInstanceOf(PropertyReferenceException.class); //병합할 속성이 DTO 에 없음
+
+        List<String> walked = new ArrayList<>();
+        Window<Member> window = memberRepository.findAllAfter(null, 5);
+        walked.addAll(window.map(Member::getUsername).getContent());
+        while (window.hasNext()) {
+            window = memberRepository.findAllAfter(Cursor.decode(window.getNextCursor()), 5);
+            walked.addAll(window.map(Member::getUsername).getContent());
+        }
+        assertThat(walked).isEqualTo(members.stream().map(Member::getUsername).collect(Collectors.toList()));
+        assertThat(memberRepository.findByAgeAfter(1, null, 10).getContent()).hasSize(6)
+                .extracting(Member::getAge).containsOnly(1);
+
+        List<Long> exported = new ArrayList<>();
+        memberRepository.exportAll(3, 2, member -> exported.add(member.getId()));
+        assertThat(exported).containsExactlyInAnyOrderElementsOf(
+                members.stream().map(Member::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void memberServiceOnEachShard() {
+        //given: 같은 username 이 여러 샤드에 있을 수 있다
+        List<Member> members = memberRepository.saveAll(List.of(
+                new Member("sameName", 10), new Member("sameName", 10), new Member("sameName", 10)));
+
+        //when: 샤드마다 트랜잭션을 따로 열어서 수정
+        int locked = memberService.increaseAgeWithPessimisticLock("sameName");
+        int optimistic = memberService.increaseAge("sameName");
+
+        //then
+        assertThat(locked).isEqualTo(3);
+        assertThat(optimistic).isEqualTo(3);
+        assertThat(memberRepository.findAllById(members.stream().map(Member::getId).collect(Collectors.toList())))
+                .extracting(Member::getAge).containsOnly(12);
+    }
+
+    private int countOn(int shard, Long memberId) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(shards.getDataSource(shard));
+        if (memberId == null) {
+            return jdbcTemplate.queryForObject("select count(*) from member", Integer.class);
+        }
+        return jdbcTemplate.queryForObject("select count(*) from member where member_id = ?", Integer.class, memberId);
+    }
+}
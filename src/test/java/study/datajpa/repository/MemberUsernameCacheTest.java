@@ -0,0 +1,109 @@
+package study.datajpa.repository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.monitoring.QueryCountScope;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 캐시는 읽기 전용 트랜잭션(@CachedLookup 메서드의 @Transactional(readOnly = true))에서만 사용하므로
+ * 테스트 트랜잭션(@Transactional)을 쓰지 않는다. (바깥 쓰기 트랜잭션에 참여하면 캐시 X)
+ */
+@SpringBootTest
+class MemberUsernameCacheTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired MemberUsernameCache memberUsernameCache;
+    @Autowired PlatformTransactionManager transactionManager;
+    @Autowired JdbcTemplate jdbcTemplate;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    List<Member> members = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        memberUsernameCache.invalidateAll();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(members);
+    }
+
+    @Test
+    public void hit() {
+        //given
+        members.add(memberRepository.save(new Member("cacheMember", 10)));
+        memberRepository.findMemberByUsername("cacheMember"); //miss -> 캐시
+
+        //when
+        try (QueryCountScope scope = QueryCountScope.start()) {
+            Member member = memberRepository.findMemberByUsername("cacheMember");
+            List<Member> list = memberRepository.findListByUsername("cacheMember");
+
+            //then: id 캐시 + 2차 캐시 -> SQL 0번
+            assertThat(member.getUsername()).isEqualTo("cacheMember");
+            assertThat(list).hasSize(1);
+            assertThat(scope.getStatementCount()).isZero();
+        }
+    }
+
+    @Test
+    public void negativeCacheInvalidatedBySave() {
+        //given: 없는 username 도 캐시
+        assertThat(memberRepository.findOptionalByUsername("lateMember")).isEmpty();
+        try (QueryCountScope scope = QueryCountScope.start()) {
+            assertThat(memberRepository.findOptionalByUsername("lateMember")).isEmpty();
+            assertThat(scope.getStatementCount()).isZero();
+        }
+
+        //when: 커밋 후 이벤트로 무효화
+        members.add(memberRepository.save(new Member("lateMember", 10)));
+
+        //then
+        assertThat(memberRepository.findOptionalByUsername("lateMember")).isPresent();
+    }
+
+    @Test
+    public void invalidatedByUsernameChange() {
+        //given
+        Member saved = memberRepository.save(new Member("beforeRename", 10));
+        members.add(saved);
+        assertThat(memberRepository.findListByUsername("beforeRename")).hasSize(1);
+
+        //when: 변경 감지로 username 변경
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.findById(saved.getId()).get().setUsername("afterRename"));
+
+        //then
+        assertThat(memberRepository.findListByUsername("beforeRename")).isEmpty();
+        assertThat(memberRepository.findListByUsername("afterRename")).hasSize(1);
+    }
+
+    @Test
+    public void staleHitIsDropped() {
+        //given: 캐시된 username 을 이벤트 없이 변경 (JDBC, 2차 캐시도 비움)
+        Member saved = memberRepository.save(new Member("jdbcBefore", 10));
+        members.add(saved);
+        assertThat(memberRepository.findListByUsername("jdbcBefore")).hasSize(1);
+        jdbcTemplate.update("update member set username = ? where member_id = ?", "jdbcAfter", saved.getId());
+        entityManagerFactory.getCache().evict(Member.class);
+
+        //when, then: 찾은 회원의 username 이 다르면 캐시를 버리고 DB 조회
+        assertThat(memberRepository.findListByUsername("jdbcBefore")).isEmpty();
+        assertThat(memberRepository.findListByUsername("jdbcAfter")).extracting(Member::getId)
+                .containsExactly(saved.getId());
+    }
+}
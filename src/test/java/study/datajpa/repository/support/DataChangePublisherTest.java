@@ -0,0 +1,65 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 트랜잭션이 끝난 후 이벤트가 발행되므로 테스트 트랜잭션(@Transactional)을 쓰지 않는다.
+ */
+@SpringBootTest
+class DataChangePublisherTest {
+
+    @Autowired MemberRepository memberRepository;
+    @Autowired TeamRepository teamRepository;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    List<Member> members = new ArrayList<>();
+    List<Team> teams = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(members);
+        teamRepository.deleteAllInBatch(teams);
+    }
+
+    @Test
+    public void invalidateOnlyChangedDomainType() {
+        //given: 5000살 3명, count 캐시
+        for (int i = 0; i < 3; i++) {
+            members.add(new Member("changed" + i, 5000));
+        }
+        memberRepository.saveAll(members);
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        memberRepository.findByAge(5000, pageRequest);
+
+        //when: 다른 엔티티(Team) 변경
+        teams.add(teamRepository.save(new Team("unrelatedTeam")));
+
+        //then: 회원 count 캐시는 그대로
+        assertThat(((CountedPage<Member>) memberRepository.findByAge(5000, pageRequest.next())).isTotalExact()).isFalse();
+
+        //when: 리포지토리 쓰기 메서드 없이 변경 감지로 회원 수정
+        new TransactionTemplate(transactionManager).executeWithoutResult(status ->
+                memberRepository.findById(members.get(0).getId()).get().setAge(5001));
+
+        //then: 트랜잭션이 끝난 후 회원 count 캐시를 비워서 다시 센다
+        Page<Member> page = memberRepository.findByAge(5000, pageRequest);
+        assertThat(((CountedPage<Member>) page).isTotalExact()).isTrue();
+        assertThat(page.getTotalElements()).isEqualTo(2);
+    }
+}
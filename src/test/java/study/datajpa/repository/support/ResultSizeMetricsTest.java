@@ -0,0 +1,89 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 조회 결과 건수 메트릭 (repository.results): 반환 타입별로 건수를 기록하는지 확인
+ * - 메서드 이름이 태그이므로 반환 타입마다 이름이 다른 테스트용 리포지토리를 팩토리로 직접 생성
+ */
+@SpringBootTest
+class ResultSizeMetricsTest {
+
+    @Autowired EntityManager em;
+    @Autowired ObjectProvider<MeterRegistry> meterRegistry;
+    @Autowired MemberRepository memberRepository;
+
+    List<Member> members = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(members);
+    }
+
+    @Test
+    public void recordResultSizes() {
+        //given: 6000살 3명
+        for (int i = 0; i < 3; i++) {
+            members.add(new Member("results" + i, 6000));
+        }
+        memberRepository.saveAll(members);
+        ResultsRepository repository = new DataJpaRepositoryFactory(em, meterRegistry)
+                .getRepository(ResultsRepository.class);
+        PageRequest pageRequest = PageRequest.of(0, 2);
+
+        //when
+        repository.findListByAge(6000);
+        repository.findPageByAge(6000, pageRequest);
+        repository.findSliceByAge(6000, pageRequest);
+        repository.findMemberByUsername("results0");
+        repository.findMemberByUsername("noResults");
+        repository.findOptionalByUsername("results0");
+        repository.findOptionalByUsername("noResults");
+        repository.countByAge(6000);
+
+        //then: 컬렉션, 페이지 건수 / 단건, Optional 은 1 또는 0 / count 는 조회 결과가 아니므로 기록 X
+        assertThat(summary("findListByAge").totalAmount()).isEqualTo(3);
+        assertThat(summary("findPageByAge").totalAmount()).isEqualTo(2);
+        assertThat(summary("findSliceByAge").totalAmount()).isEqualTo(2);
+        assertThat(summary("findMemberByUsername").count()).isEqualTo(2);
+        assertThat(summary("findMemberByUsername").totalAmount()).isEqualTo(1);
+        assertThat(summary("findOptionalByUsername").count()).isEqualTo(2);
+        assertThat(summary("findOptionalByUsername").totalAmount()).isEqualTo(1);
+        assertThat(meterRegistry.getObject().find("repository.results")
+                .tags("repository", "ResultsRepository", "method", "countByAge").summary()).isNull();
+    }
+
+    private DistributionSummary summary(String method) {
+        return meterRegistry.getObject().get("repository.results")
+                .tags("repository", "ResultsRepository", "method", method).summary();
+    }
+
+    interface ResultsRepository extends Repository<Member, Long> {
+        List<Member> findListByAge(int age);
+        Page<Member> findPageByAge(int age, Pageable pageable);
+        Slice<Member> findSliceByAge(int age, Pageable pageable);
+        Member findMemberByUsername(String username);
+        Optional<Member> findOptionalByUsername(String username);
+        long countByAge(int age);
+    }
+}
@@ -0,0 +1,81 @@
+package study.datajpa.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 여러 스레드가 같은 회원을 동시에 수정 (스레드마다 트랜잭션이 필요해서 @Transactional X)
+ */
+@SpringBootTest
+class MemberServiceTest {
+
+    static final int THREADS = 4;
+    static final int INCREASES_PER_THREAD = 5;
+
+    @Autowired MemberService memberService;
+    @Autowired MemberRepository memberRepository;
+
+    List<Member> members = new ArrayList<>();
+
+    @AfterEach
+    void cleanUp() {
+        memberRepository.deleteAllInBatch(members);
+    }
+
+    @Test
+    public void increaseAgeWithOptimisticRetry() throws Exception {
+        Member member = save("optimisticMember");
+
+        runConcurrently(memberService::increaseAge, "optimisticMember");
+
+        Member findMember = memberRepository.findById(member.getId()).get();
+        assertThat(findMember.getAge()).isEqualTo(THREADS * INCREASES_PER_THREAD); //재시도로 갱신 손실 X
+        assertThat(findMember.getVersion()).isEqualTo((long) THREADS * INCREASES_PER_THREAD);
+    }
+
+    @Test
+    public void increaseAgeWithPessimisticLock() throws Exception {
+        Member member = save("pessimisticMember");
+
+        runConcurrently(memberService::increaseAgeWithPessimisticLock, "pessimisticMember");
+
+        assertThat(memberRepository.findById(member.getId()).get().getAge())
+                .isEqualTo(THREADS * INCREASES_PER_THREAD);
+    }
+
+    private Member save(String username) {
+        Member member = memberRepository.save(new Member(username, 0));
+        members.add(member);
+        return member;
+    }
+
+    private void runConcurrently(Consumer<String> increase, String username) {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(CompletableFuture.runAsync(() -> {
+                    for (int j = 0; j < INCREASES_PER_THREAD; j++) {
+                        increase.accept(username);
+                    }
+                }, executor));
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        } finally {
+            executor.shutdown();
+        }
+    }
+}